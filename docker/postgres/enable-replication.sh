@@ -0,0 +1,5 @@
+#!/bin/bash
+# Executado apenas na primeira inicialização do volume do primário: libera conexões de replicação
+# para o perfil "replica" do compose (réplica de streaming usada nas leituras read-only).
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -5,12 +5,14 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.util.TimeZone;
 
 @EnableAsync
+@EnableScheduling
 @SpringBootApplication(exclude = { S3AutoConfiguration.class })
 @EnableTransactionManagement
 @CrossOrigin(origins = "*")
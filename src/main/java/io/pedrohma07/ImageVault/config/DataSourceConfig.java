@@ -0,0 +1,86 @@
+package io.pedrohma07.ImageVault.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pool do primário (spring.datasource) e, se configuradas, pools das réplicas de leitura.
+ * As métricas do Hikari (hikaricp.*) saem com a tag pool=primary / replica-N.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${app.datasource.primary.maximum-pool-size}")
+    private int primaryPoolSize;
+
+    // URLs JDBC separadas por vírgula; vazio = sem réplicas (tudo vai ao primário)
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replicas.maximum-pool-size}")
+    private int replicaPoolSize;
+
+    @Value("${app.datasource.replicas.pin-after-write}")
+    private Duration pinAfterWrite;
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(MeterRegistry meterRegistry) {
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        DataSource primary = createPool(ReadReplicaRoutingDataSource.PRIMARY, url, primaryPoolSize, false, metrics);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = replicaUrls.stream().map(String::trim).filter(u -> !u.isEmpty()).toList();
+        for (int i = 0; i < urls.size(); i++) {
+            String name = "replica-" + i;
+            replicas.put(name, createPool(name, urls.get(i), replicaPoolSize, true, metrics));
+        }
+
+        return new ReadReplicaRoutingDataSource(primary, replicas, pinAfterWrite, meterRegistry);
+    }
+
+    // Obtém a conexão só no primeiro comando, quando o roteamento já sabe se a transação é read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+    // ** Metodos auxiliares **
+
+    private HikariDataSource createPool(String name, String jdbcUrl, int maxPoolSize, boolean readOnly,
+                                        MicrometerMetricsTrackerFactory metrics) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(name);
+        config.setJdbcUrl(jdbcUrl);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setReadOnly(readOnly);
+        // Réplica indisponível na subida não impede a aplicação de iniciar; o monitor a tira de rotação
+        config.setInitializationFailTimeout(readOnly ? -1 : 1);
+        config.setMetricsTrackerFactory(metrics);
+        return new HikariDataSource(config);
+    }
+}
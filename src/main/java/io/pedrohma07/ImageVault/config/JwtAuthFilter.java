@@ -1,6 +1,12 @@
 package io.pedrohma07.ImageVault.config;
 
+import io.jsonwebtoken.JwtException;
+import io.pedrohma07.ImageVault.dto.auth.UserPrincipal;
+import io.pedrohma07.ImageVault.dto.auth.VerifiedToken;
+import io.pedrohma07.ImageVault.model.User;
 import io.pedrohma07.ImageVault.service.JwtService;
+import io.pedrohma07.ImageVault.service.TokenRevocationService;
+import io.pedrohma07.ImageVault.service.UserSnapshotCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,17 +17,21 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserSnapshotCache userSnapshotCache;
+    private final TokenRevocationService tokenRevocationService;
 
 
     @Override
@@ -33,7 +43,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String userEmail;
 
         // Verifica se o header existe e começa com "Bearer "
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -44,23 +53,36 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // Extrai o token do header
         jwt = authHeader.substring(7);
 
-        // Extrai o e-mail do usuário de dentro do token
-        userEmail = jwtService.extractUsername(jwt);
+        // Valida assinatura e expiração com um único parse (ou via cache de tokens já verificados)
+        final VerifiedToken verifiedToken;
+        try {
+            verifiedToken = jwtService.verify(jwt);
+        } catch (JwtException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // Refresh tokens (inclusive os legados, sem "typ") só valem no endpoint de renovação
+        if (!verifiedToken.isAccessToken()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
 
         // Verifica se o usuário já não está autenticado
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (verifiedToken.subject() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-            // Busca os detalhes do usuário no banco de dados
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+            // Busca o snapshot do usuário no cache local (sem consulta ao banco em regime permanente)
+            Optional<UserPrincipal> principal = resolvePrincipal(verifiedToken);
 
-            // Valida o token com os detalhes do usuário
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // Tokens revogados (logout/sair de todas as sessões) são checados em memória
+            if (principal.isPresent() && principal.get().isEnabled()
+                    && !tokenRevocationService.isRevoked(verifiedToken, principal.get().id())) {
 
-                // Se o token for válido, cria um objeto de autenticação
+                // Se o usuário estiver ativo, cria um objeto de autenticação (o token verificado vai como credencial)
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails,
-                        null,
-                        userDetails.getAuthorities()
+                        principal.get(),
+                        verifiedToken,
+                        principal.get().getAuthorities()
                 );
 
                 authToken.setDetails(
@@ -73,5 +95,23 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-}
 
+    private Optional<UserPrincipal> resolvePrincipal(VerifiedToken verifiedToken) {
+        if (verifiedToken.userId() != null) {
+            return userSnapshotCache.get(verifiedToken.userId());
+        }
+
+        // Tokens emitidos antes da inclusão do claim "uid": busca pelo e-mail e popula o cache
+        try {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(verifiedToken.subject());
+            if (userDetails instanceof User user) {
+                UserPrincipal principal = UserPrincipal.from(user);
+                userSnapshotCache.put(principal);
+                return Optional.of(principal);
+            }
+            return Optional.empty();
+        } catch (UsernameNotFoundException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package io.pedrohma07.ImageVault.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.dto.auth.UserPrincipal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Envia transações somente leitura (@Transactional(readOnly = true)) às réplicas e o restante ao primário.
+ * Precisa ficar atrás de um LazyConnectionDataSourceProxy: a conexão física só é obtida no primeiro comando,
+ * quando o flag read-only da transação já está disponível.
+ * Réplicas com atraso acima do limite saem da rotação; usuários que acabaram de escrever ficam presos ao
+ * primário por um intervalo curto, para lerem o que escreveram.
+ * Transações somente leitura não devem tomar locks (advisory, FOR UPDATE/SHARE) nem durar muito: numa réplica o lock
+ * não exclui os outros nós e consultas longas são canceladas por conflito de recovery. Use onPrimary nesses casos.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    // Aninhável: cada chamada guarda e restaura o valor anterior
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    // O atraso (segundos) vem de pg_last_xact_replay_timestamp(); uma réplica sem nada pendente tem atraso zero.
+    // Instâncias fora de recuperação (ex.: uma segunda instância local) também contam como atraso zero.
+    private static final String LAG_QUERY = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END
+            """;
+
+    private final List<Replica> replicas;
+    private final Cache<UUID, Boolean> pinnedUsers;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Counter> routed = new HashMap<>();
+
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+        private volatile double lagSeconds;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReadReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaPools,
+                                        Duration pinAfterWrite, MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.putAll(replicaPools);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        this.replicas = replicaPools.entrySet().stream().map(e -> new Replica(e.getKey(), e.getValue())).toList();
+        this.pinnedUsers = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(pinAfterWrite)
+                .build();
+
+        for (String reason : List.of("write", "primary_only", "pinned", "fallback")) {
+            routed.put(reason, Counter.builder("imagevault.datasource.routing")
+                    .tag("target", PRIMARY).tag("reason", reason).register(meterRegistry));
+        }
+        for (Replica replica : replicas) {
+            routed.put(replica.name, Counter.builder("imagevault.datasource.routing")
+                    .tag("target", replica.name).tag("reason", "read").register(meterRegistry));
+            Gauge.builder("imagevault.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("pool", replica.name).baseUnit("seconds").register(meterRegistry);
+            Gauge.builder("imagevault.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("pool", replica.name).register(meterRegistry);
+        }
+    }
+
+    // Força o primário para leituras que não toleram atraso (ex.: checagens de acesso, revogações).
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_ONLY.remove();
+            } else {
+                PRIMARY_ONLY.set(previous);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Atualiza o estado de cada réplica; as que falham na consulta ou passam do limite saem da rotação.
+    public void checkReplicas(Duration maxLag) {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(5);
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    double lag = rs.getDouble(1);
+                    boolean known = !rs.wasNull();
+                    replica.lagSeconds = known ? lag : Double.NaN;
+                    replica.healthy = known && lag * 1000 <= maxLag.toMillis();
+                }
+            } catch (SQLException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.healthy = false;
+                log.debug("Replica {} health check failed", replica.name, e);
+            }
+
+            if (wasHealthy != replica.healthy) {
+                if (replica.healthy) {
+                    log.info("Replica {} is back in rotation (lag {}s)", replica.name, replica.lagSeconds);
+                } else {
+                    log.warn("Replica {} removed from rotation (lag {}s, max {})", replica.name, replica.lagSeconds, maxLag);
+                }
+            }
+        }
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            pinCurrentUserAfterCommit();
+            return route(PRIMARY, "write");
+        }
+        if (replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        if (PRIMARY_ONLY.get() != null) {
+            return route(PRIMARY, "primary_only");
+        }
+
+        UUID userId = currentUserId();
+        if (userId != null && pinnedUsers.getIfPresent(userId) != null) {
+            return route(PRIMARY, "pinned");
+        }
+
+        // Round-robin entre as réplicas saudáveis; sem nenhuma, cai para o primário
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return route(replica.name, replica.name);
+            }
+        }
+        return route(PRIMARY, "fallback");
+    }
+
+    // ** Metodos auxiliares **
+
+    private String route(String target, String counter) {
+        routed.get(counter).increment();
+        return target;
+    }
+
+    // O pino vale a partir do commit: leituras seguintes do mesmo usuário vão ao primário até a réplica alcançá-lo.
+    // É local ao nó; o intervalo deve cobrir o atraso máximo tolerado das réplicas.
+    private void pinCurrentUserAfterCommit() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        UUID userId = currentUserId();
+        if (userId != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pinnedUsers.put(userId, Boolean.TRUE);
+                }
+            });
+        }
+    }
+
+    private UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.id();
+        }
+        return null;
+    }
+}
@@ -44,7 +44,10 @@ public class SecurityConfig {
             // Configura as regras de autorização para os requests HTTP
             .authorizeHttpRequests(auth -> auth
                     .requestMatchers(AUTH_WHITELIST).permitAll()
+                    .requestMatchers("/api/auth/logout", "/api/auth/revoke-all").authenticated()
                     .requestMatchers("/api/auth/**").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/.well-known/jwks.json").permitAll()
+                    .requestMatchers(HttpMethod.GET, "/api/images/public").permitAll()
                     .anyRequest().authenticated())
             .authenticationProvider(authenticationProvider())
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
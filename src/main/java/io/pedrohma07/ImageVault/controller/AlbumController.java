@@ -0,0 +1,105 @@
+package io.pedrohma07.ImageVault.controller;
+
+import io.pedrohma07.ImageVault.dto.CursorPageResponse;
+import io.pedrohma07.ImageVault.dto.album.AlbumDTO;
+import io.pedrohma07.ImageVault.dto.album.AlbumRequestDTO;
+import io.pedrohma07.ImageVault.dto.auth.UserPrincipal;
+import io.pedrohma07.ImageVault.dto.image.ImageIdsDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.MembershipChangeDTO;
+import io.pedrohma07.ImageVault.service.AlbumService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/albums")
+@RequiredArgsConstructor
+@Tag(name = "Albums", description = "Endpoints para agrupar imagens em álbuns.")
+@SecurityRequirement(name = "bearerAuth")
+public class AlbumController {
+
+    private final AlbumService albumService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Cria um álbum")
+    public AlbumDTO createAlbum(@Valid @RequestBody AlbumRequestDTO request, @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started createAlbum action");
+        return albumService.createAlbum(principal.id(), request);
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Lista os álbuns do usuário autenticado, com contagem de imagens e capa")
+    public List<AlbumDTO> listAlbums(@AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started listAlbums action");
+        return albumService.listAlbums(principal.id());
+    }
+
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Obtém um álbum do usuário autenticado")
+    public AlbumDTO getAlbum(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started getAlbum action");
+        return albumService.findAlbum(id, principal.id());
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Renomeia um álbum")
+    public AlbumDTO renameAlbum(@PathVariable UUID id, @Valid @RequestBody AlbumRequestDTO request,
+                                @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started renameAlbum action");
+        return albumService.renameAlbum(id, principal.id(), request);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Deleta um álbum (as imagens não são removidas)")
+    public void deleteAlbum(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started deleteAlbum action");
+        albumService.deleteAlbum(id, principal.id());
+    }
+
+    @GetMapping("/{id}/images")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Lista as imagens do álbum por cursor (mais recentes primeiro)")
+    public CursorPageResponse<ImageMetadataDTO> listAlbumImages(
+            @PathVariable UUID id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        log.info("Started listAlbumImages action");
+        return albumService.listAlbumImages(id, principal.id(), cursor, limit);
+    }
+
+    @PostMapping("/{id}/images")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Adiciona imagens ao álbum em lote")
+    public MembershipChangeDTO addImages(@PathVariable UUID id, @Valid @RequestBody ImageIdsDTO request,
+                                         @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started addAlbumImages action");
+        return albumService.addImages(id, principal.id(), request.imageIds());
+    }
+
+    @PostMapping("/{id}/images/remove")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Remove imagens do álbum em lote")
+    public MembershipChangeDTO removeImages(@PathVariable UUID id, @Valid @RequestBody ImageIdsDTO request,
+                                            @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started removeAlbumImages action");
+        return albumService.removeImages(id, principal.id(), request.imageIds());
+    }
+}
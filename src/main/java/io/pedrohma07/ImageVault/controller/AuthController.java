@@ -4,14 +4,18 @@ import io.pedrohma07.ImageVault.dto.auth.*;
 import io.pedrohma07.ImageVault.dto.user.CreateUserDTO;
 import io.pedrohma07.ImageVault.dto.user.ResponseUserDTO;
 import io.pedrohma07.ImageVault.service.AuthService;
+import io.pedrohma07.ImageVault.service.LoginAdmissionService;
+import io.pedrohma07.ImageVault.service.TokenRevocationService;
 import io.pedrohma07.ImageVault.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @Slf4j
@@ -22,6 +26,8 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
     private final UserService userService; // Para o registro
     private final AuthService authService; // Para o login
+    private final LoginAdmissionService loginAdmissionService;
+    private final TokenRevocationService tokenRevocationService;
 
     @PostMapping("/register")
     @ResponseStatus(HttpStatus.CREATED)
@@ -33,9 +39,10 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Autentica um usuário e retorna os tokens")
-    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequest) {
+    public ResponseEntity<AuthResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequest, HttpServletRequest request) {
         log.info("Received request to login user");
-        return ResponseEntity.ok(authService.login(loginRequest));
+        return ResponseEntity.ok(loginAdmissionService.admit(request.getRemoteAddr(), loginRequest.email(),
+                () -> authService.login(loginRequest)));
     }
 
     @PostMapping("/refresh-token")
@@ -51,4 +58,22 @@ public class AuthController {
         log.info("Received request to login with 2FA");
         return ResponseEntity.ok(authService.verify2faLogin(login2faRequest));
     }
+
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Revoga o access token atual e o refresh token do usuário")
+    public void logout(Authentication authentication, @RequestBody(required = false) LogoutRequestDTO request) {
+        log.info("Received request to logout");
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        authService.logout((VerifiedToken) authentication.getCredentials(), principal.id(),
+                request != null ? request.refreshToken() : null);
+    }
+
+    @PostMapping("/revoke-all")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Revoga todas as sessões do usuário")
+    public void revokeAll(Authentication authentication) {
+        log.info("Received request to revoke all sessions");
+        tokenRevocationService.revokeAll(((UserPrincipal) authentication.getPrincipal()).id());
+    }
 }
@@ -1,27 +1,41 @@
 package io.pedrohma07.ImageVault.controller;
 
+import io.pedrohma07.ImageVault.dto.CursorPageResponse;
 import io.pedrohma07.ImageVault.dto.PaginatedResponse;
+import io.pedrohma07.ImageVault.dto.auth.UserPrincipal;
+import io.pedrohma07.ImageVault.dto.image.BulkUpdateImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.BulkUpdateResultDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageChangesDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageListFilter;
 import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.ThumbnailViewDTO;
 import io.pedrohma07.ImageVault.dto.image.UpdateImageMetadataDTO;
 import io.pedrohma07.ImageVault.dto.user.ResponseUserDTO;
+import io.pedrohma07.ImageVault.model.enums.ImageSortField;
+import io.pedrohma07.ImageVault.service.ImageChangeLogService;
 import io.pedrohma07.ImageVault.service.ImageService;
+import io.pedrohma07.ImageVault.service.PublicFeedService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URI;
-import java.security.Principal;
+import java.time.Duration;
 import java.util.UUID;
 
 @Slf4j
@@ -33,44 +47,114 @@ import java.util.UUID;
 public class ImageController {
 
     private final ImageService imageService;
+    private final PublicFeedService publicFeedService;
+    private final ImageChangeLogService imageChangeLogService;
+
+    @Value("${app.images.public-feed.http-max-age}")
+    private Duration publicFeedMaxAge;
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @ResponseStatus(HttpStatus.CREATED)
     @Operation(summary = "Faz o upload de uma nova imagem")
     public ImageMetadataDTO uploadImage(
             @RequestParam("file") MultipartFile file,
-            Principal principal // injeta o usuário
+            @AuthenticationPrincipal UserPrincipal principal // injeta o usuário
     ) {
         log.info("Started uploadImage action");
-        return imageService.uploadImage(file, principal.getName());
+        return imageService.uploadImage(file, principal.id());
     }
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    @Operation(summary = "Lista as imagens do usuário autenticado de forma paginada")
+    @Operation(summary = "Lista as imagens do usuário autenticado de forma paginada, com filtros e ordenação")
     public PaginatedResponse<ImageMetadataDTO> listUserImages(
             @RequestParam(value = "page", defaultValue = "1") int page,
             @RequestParam(value = "limit", defaultValue = "10") int limit,
-            Principal principal
+            @RequestParam(value = "sort", defaultValue = "UPLOAD_TIMESTAMP") ImageSortField sort,
+            @RequestParam(value = "direction", defaultValue = "DESC") Sort.Direction direction,
+            @ParameterObject @ModelAttribute ImageListFilter filter,
+            @AuthenticationPrincipal UserPrincipal principal
     ) {
         log.info("Started listUserImages action");
-        Pageable pageable = PageRequest.of(page - 1, limit);
-        Page<ImageMetadataDTO> images = imageService.listUserImages(principal.getName(), pageable);
+        Page<ImageMetadataDTO> images = imageService.listUserImages(principal.id(), filter, sort, direction, page, limit);
         return new PaginatedResponse<>(
                 images.getContent(),
                 page,
-                limit,
+                images.getSize(),
                 images.getTotalElements(),
                 images.getTotalPages()
         );
     }
 
+    // Selecionado quando o parâmetro "cursor" está presente (vazio = primeira página); ordem fixa por data de upload
+    @GetMapping(params = "cursor")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Lista as imagens do usuário autenticado por cursor (sem COUNT, custo constante por página)")
+    public CursorPageResponse<ImageMetadataDTO> listUserImagesByCursor(
+            @RequestParam(value = "cursor") String cursor,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @RequestParam(value = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @ParameterObject @ModelAttribute ImageListFilter filter,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        log.info("Started listUserImagesByCursor action");
+        return imageService.listUserImagesByCursor(principal.id(), filter, cursor, limit, includeTotal);
+    }
+
+    @GetMapping("/search")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Busca imagens do usuário autenticado pelo nome do arquivo, ordenadas por relevância")
+    public CursorPageResponse<ImageMetadataDTO> searchUserImages(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        log.info("Started searchUserImages action");
+        return imageService.searchUserImages(principal.id(), query, cursor, limit);
+    }
+
+    // Sem autenticação; a resposta é igual para todos e pode ficar em caches HTTP compartilhados
+    @GetMapping("/public")
+    @Operation(summary = "Lista as imagens públicas de todos os usuários por cursor, mais recentes primeiro")
+    public ResponseEntity<CursorPageResponse<ImageMetadataDTO>> listPublicImages(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") int limit,
+            WebRequest request
+    ) {
+        log.info("Started listPublicImages action");
+        CursorPageResponse<ImageMetadataDTO> page = publicFeedService.listPublicImages(cursor, limit);
+        // Fraco: o corpo enviado é embrulhado pelo GlobalResponseHandler com um timestamp, então só a página
+        // (não os bytes) se repete entre respostas com o mesmo ETag
+        String etag = "W/\"" + publicFeedService.etag(page) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(publicFeedMaxAge).cachePublic())
+                .eTag(etag)
+                .body(page);
+    }
+
+    @GetMapping("/changes")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Lista as mudanças nas imagens do usuário autenticado após a sequência \"since\" (sincronização incremental)")
+    public ImageChangesDTO listImageChanges(
+            @RequestParam(value = "since", defaultValue = "0") long since,
+            @RequestParam(value = "limit", defaultValue = "500") int limit,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        log.info("Started listImageChanges action");
+        return imageChangeLogService.getChanges(principal.id(), since, limit);
+    }
+
     @GetMapping("/{id}/metadata")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Obtém os metadados de uma imagem específica do usuário autenticado")
-    public ImageMetadataDTO getMetadataById(@PathVariable UUID id, Principal principal) {
+    public ImageMetadataDTO getMetadataById(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
         log.info("Started getMetadataById action");
-        return imageService.findMetadataById(id, principal.getName());
+        return imageService.findMetadataById(id, principal.id());
     }
 
     @PutMapping("/{id}/metadata")
@@ -79,25 +163,36 @@ public class ImageController {
     public ImageMetadataDTO updateImageMetadata(
             @PathVariable UUID id,
             @Valid @RequestBody UpdateImageMetadataDTO updateDTO,
-            Principal principal
+            @AuthenticationPrincipal UserPrincipal principal
     ) {
         log.info("Started updateImageMetadata action");
-        return imageService.updateImageMetadata(id, principal.getName(), updateDTO);
+        return imageService.updateImageMetadata(id, principal.id(), updateDTO);
+    }
+
+    @PatchMapping("/metadata")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Atualiza a visibilidade e/ou o nome de várias imagens do usuário autenticado em uma única transação")
+    public BulkUpdateResultDTO bulkUpdateImageMetadata(
+            @Valid @RequestBody BulkUpdateImageMetadataDTO bulkDTO,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        log.info("Started bulkUpdateImageMetadata action");
+        return imageService.bulkUpdateImageMetadata(principal.id(), bulkDTO);
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(summary = "Deleta uma imagem do usuário autenticado")
-    public void deleteImage(@PathVariable UUID id, Principal principal) {
+    public void deleteImage(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
         log.info("Started deleteImage action");
-        imageService.deleteImage(id, principal.getName());
+        imageService.deleteImage(id, principal.id());
     }
 
     @GetMapping("/view/{id}")
     @Operation(summary = "Obtém uma URL temporária e redireciona para a visualização da imagem")
-    public ResponseEntity<Void> viewImage(@PathVariable UUID id, Principal principal) {
+    public ResponseEntity<Void> viewImage(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
         log.info("Started viewImage action");
-        String imageUrl = imageService.getImageViewUrl(id, principal.getName(), false);
+        String imageUrl = imageService.getImageViewUrl(id, principal.id(), false);
         return ResponseEntity
                 .status(HttpStatus.FOUND)
                 .location(URI.create(imageUrl))
@@ -106,9 +201,15 @@ public class ImageController {
 
     @GetMapping("/view/{id}/thumbnail")
     @Operation(summary = "Redireciona para a URL de visualização do thumbnail da imagem")
-    public ResponseEntity<Void> viewImageThumbnail(@PathVariable UUID id, Principal principal) {
+    public ResponseEntity<byte[]> viewImageThumbnail(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
         log.info("Started viewImageThumbnail action");
-        String imageUrl = imageService.getImageViewUrl(id, principal.getName(), true);
-        return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(imageUrl)).build();
+        ThumbnailViewDTO thumbnail = imageService.getThumbnailView(id, principal.id());
+        if (thumbnail.redirectUrl() != null) {
+            return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(thumbnail.redirectUrl())).build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(thumbnail.contentType()))
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(10)).cachePrivate())
+                .body(thumbnail.content());
     }
 }
@@ -0,0 +1,40 @@
+package io.pedrohma07.ImageVault.controller;
+
+import io.pedrohma07.ImageVault.dto.auth.JwksDTO;
+import io.pedrohma07.ImageVault.service.JwtKeyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Chaves públicas para validação local dos tokens por gateways e outros serviços.")
+public class JwksController {
+    private final JwtKeyService jwtKeyService;
+
+    @Value("${jwt.signing.jwks-max-age}")
+    private Duration jwksMaxAge;
+
+    @GetMapping("/.well-known/jwks.json")
+    @Operation(summary = "Retorna o conjunto de chaves públicas (JWKS) usado para assinar os tokens")
+    public ResponseEntity<JwksDTO> jwks(WebRequest request) {
+        JwksDTO jwks = jwtKeyService.jwks();
+        String etag = "\"" + jwtKeyService.etag(jwks) + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAge).cachePublic())
+                .eTag(etag)
+                .body(jwks);
+    }
+}
@@ -0,0 +1,88 @@
+package io.pedrohma07.ImageVault.controller;
+
+import io.pedrohma07.ImageVault.dto.CursorPageResponse;
+import io.pedrohma07.ImageVault.dto.auth.UserPrincipal;
+import io.pedrohma07.ImageVault.dto.image.ImageIdsDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.MembershipChangeDTO;
+import io.pedrohma07.ImageVault.dto.tag.CreateTagDTO;
+import io.pedrohma07.ImageVault.dto.tag.TagDTO;
+import io.pedrohma07.ImageVault.service.TagService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/tags")
+@RequiredArgsConstructor
+@Tag(name = "Tags", description = "Endpoints para marcar imagens com tags.")
+@SecurityRequirement(name = "bearerAuth")
+public class TagController {
+
+    private final TagService tagService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Operation(summary = "Cria uma tag")
+    public TagDTO createTag(@Valid @RequestBody CreateTagDTO request, @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started createTag action");
+        return tagService.createTag(principal.id(), request);
+    }
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Lista as tags do usuário autenticado, com contagem de imagens")
+    public List<TagDTO> listTags(@AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started listTags action");
+        return tagService.listTags(principal.id());
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Deleta uma tag (as imagens não são removidas)")
+    public void deleteTag(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started deleteTag action");
+        tagService.deleteTag(id, principal.id());
+    }
+
+    @GetMapping("/{id}/images")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Lista as imagens com a tag por cursor (mais recentes primeiro)")
+    public CursorPageResponse<ImageMetadataDTO> listTaggedImages(
+            @PathVariable UUID id,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "10") int limit,
+            @AuthenticationPrincipal UserPrincipal principal
+    ) {
+        log.info("Started listTaggedImages action");
+        return tagService.listTaggedImages(id, principal.id(), cursor, limit);
+    }
+
+    @PostMapping("/{id}/images")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Aplica a tag a várias imagens em lote")
+    public MembershipChangeDTO tagImages(@PathVariable UUID id, @Valid @RequestBody ImageIdsDTO request,
+                                         @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started tagImages action");
+        return tagService.tagImages(id, principal.id(), request.imageIds());
+    }
+
+    @PostMapping("/{id}/images/remove")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Remove a tag de várias imagens em lote")
+    public MembershipChangeDTO untagImages(@PathVariable UUID id, @Valid @RequestBody ImageIdsDTO request,
+                                           @AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started untagImages action");
+        return tagService.untagImages(id, principal.id(), request.imageIds());
+    }
+}
@@ -1,9 +1,12 @@
 package io.pedrohma07.ImageVault.controller;
 
+import io.pedrohma07.ImageVault.dto.auth.UserPrincipal;
 import io.pedrohma07.ImageVault.dto.user.CreateUserDTO;
 import io.pedrohma07.ImageVault.dto.PaginatedResponse;
 import io.pedrohma07.ImageVault.dto.user.ResponseUserDTO;
+import io.pedrohma07.ImageVault.dto.user.StorageUsageDTO;
 import io.pedrohma07.ImageVault.dto.user.UpdateUserDTO;
+import io.pedrohma07.ImageVault.service.StorageUsageService;
 import io.pedrohma07.ImageVault.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,6 +21,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @Slf4j
@@ -28,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "bearerAuth")
 public class UserController {
     private final UserService userService;
+    private final StorageUsageService storageUsageService;
 
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -53,6 +58,18 @@ public class UserController {
         );
     }
 
+    @GetMapping("/me/usage")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "Obtém o uso de armazenamento e a cota", description = "Retorna bytes usados, quantidade de imagens e cota do usuário autenticado.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Uso de armazenamento retornado com sucesso."),
+            @ApiResponse(responseCode = "401", description = "Não autorizado. Token JWT inválido ou ausente.")
+    })
+    public StorageUsageDTO getStorageUsage(@AuthenticationPrincipal UserPrincipal principal) {
+        log.info("Started getStorageUsage action");
+        return storageUsageService.getUsage(principal.id());
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "Obtém detalhes de um usuário", description = "Retorna os detalhes de um usuário específico pelo ID.") // 2. Descreve o endpoint
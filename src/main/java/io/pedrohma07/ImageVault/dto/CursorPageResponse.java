@@ -0,0 +1,12 @@
+package io.pedrohma07.ImageVault.dto;
+
+import java.util.List;
+
+// Página por cursor: nextCursor é opaco e nulo na última página; totalElements só vem quando solicitado.
+public record CursorPageResponse<T>(
+        List<T> data,
+        int limit,
+        String nextCursor,
+        boolean hasMore,
+        Long totalElements
+) {}
@@ -0,0 +1,13 @@
+package io.pedrohma07.ImageVault.dto.album;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// coverImageId aponta para a imagem de capa (thumbnail em /api/images/view/{id}/thumbnail); nulo em álbum vazio.
+public record AlbumDTO(
+        UUID id,
+        String name,
+        int imageCount,
+        UUID coverImageId,
+        OffsetDateTime createdAt
+) {}
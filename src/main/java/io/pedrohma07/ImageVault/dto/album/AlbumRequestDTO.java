@@ -0,0 +1,10 @@
+package io.pedrohma07.ImageVault.dto.album;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record AlbumRequestDTO(
+        @NotBlank(message = "O nome do álbum não pode estar em branco.")
+        @Size(max = 255, message = "O nome do álbum deve ter no máximo 255 caracteres.")
+        String name
+) {}
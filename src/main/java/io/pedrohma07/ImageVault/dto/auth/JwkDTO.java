@@ -0,0 +1,12 @@
+package io.pedrohma07.ImageVault.dto.auth;
+
+// Chave pública no formato JWK (RFC 7517/7518) para curvas elípticas
+public record JwkDTO(
+        String kty,
+        String crv,
+        String kid,
+        String use,
+        String alg,
+        String x,
+        String y
+) {}
@@ -0,0 +1,7 @@
+package io.pedrohma07.ImageVault.dto.auth;
+
+import java.util.List;
+
+public record JwksDTO(
+        List<JwkDTO> keys
+) {}
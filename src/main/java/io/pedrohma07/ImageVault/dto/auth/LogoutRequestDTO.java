@@ -0,0 +1,6 @@
+package io.pedrohma07.ImageVault.dto.auth;
+
+// Corpo opcional do logout: com o refresh token, o "jti" dele também é revogado.
+public record LogoutRequestDTO(
+        String refreshToken
+) {}
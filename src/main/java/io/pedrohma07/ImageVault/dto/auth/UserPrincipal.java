@@ -0,0 +1,43 @@
+package io.pedrohma07.ImageVault.dto.auth;
+
+import io.pedrohma07.ImageVault.model.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Snapshot imutável do usuário autenticado, mantido em cache e usado como principal no SecurityContext.
+public record UserPrincipal(
+        UUID id,
+        String email,
+        String role,
+        boolean enabled
+) implements UserDetails {
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRole(), user.isEnabled());
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority(role));
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
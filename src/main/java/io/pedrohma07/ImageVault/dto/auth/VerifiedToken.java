@@ -0,0 +1,30 @@
+package io.pedrohma07.ImageVault.dto.auth;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Claims de um JWT cuja assinatura e expiração já foram verificadas.
+public record VerifiedToken(
+        String subject,
+        String tokenId,
+        UUID userId,
+        String role,
+        String type,
+        Instant issuedAt,
+        Instant expiresAt
+) {
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(Instant.now());
+    }
+
+    public boolean isAccessToken() {
+        return ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return REFRESH.equals(type);
+    }
+}
@@ -0,0 +1,16 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.model.enums.ImageVisibility;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+// Atualização em lote. "ids" + "visibility" aplica a mesma visibilidade a todas as imagens (um único UPDATE);
+// "items" traz alterações individuais (nome e/ou visibilidade). Os dois podem vir na mesma requisição.
+public record BulkUpdateImageMetadataDTO(
+        List<@NotNull UUID> ids,
+        ImageVisibility visibility,
+        List<@Valid @NotNull ImageMetadataChangeDTO> items
+) {}
@@ -0,0 +1,23 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.model.enums.BulkUpdateStatus;
+
+import java.util.UUID;
+
+public record BulkUpdateItemResultDTO(
+        UUID id,
+        BulkUpdateStatus status,
+        String message
+) {
+    public static BulkUpdateItemResultDTO updated(UUID id) {
+        return new BulkUpdateItemResultDTO(id, BulkUpdateStatus.UPDATED, null);
+    }
+
+    public static BulkUpdateItemResultDTO notFound(UUID id) {
+        return new BulkUpdateItemResultDTO(id, BulkUpdateStatus.NOT_FOUND, "Imagem não encontrada com o ID: " + id);
+    }
+
+    public static BulkUpdateItemResultDTO invalid(UUID id, String message) {
+        return new BulkUpdateItemResultDTO(id, BulkUpdateStatus.INVALID, message);
+    }
+}
@@ -0,0 +1,10 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import java.util.List;
+
+// Resultado por imagem, na ordem da requisição (primeiro "ids", depois "items").
+public record BulkUpdateResultDTO(
+        int updated,
+        int failed,
+        List<BulkUpdateItemResultDTO> results
+) {}
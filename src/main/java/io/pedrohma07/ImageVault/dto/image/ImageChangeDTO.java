@@ -0,0 +1,13 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.model.enums.ImageChangeType;
+
+import java.util.UUID;
+
+// "image" é nulo nos tombstones (DELETED).
+public record ImageChangeDTO(
+        long seq,
+        UUID imageId,
+        ImageChangeType type,
+        ImageMetadataDTO image
+) {}
@@ -0,0 +1,12 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import java.util.List;
+
+// nextSince é o "since" da próxima chamada. Com resyncRequired, o cliente baixa a lista completa e continua
+// de nextSince (mudanças feitas durante o download voltam a aparecer, e aplicá-las de novo é inofensivo).
+public record ImageChangesDTO(
+        List<ImageChangeDTO> changes,
+        long nextSince,
+        boolean hasMore,
+        boolean resyncRequired
+) {}
@@ -0,0 +1,29 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+// Posição na listagem ordenada por (upload_timestamp DESC, id), serializada como token opaco (Base64 URL-safe).
+public record ImageCursor(
+        OffsetDateTime uploadTimestamp,
+        UUID id
+) {
+    public String encode() {
+        String raw = uploadTimestamp.toString() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ImageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new ImageCursor(OffsetDateTime.parse(raw.substring(0, separator)), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor de paginação inválido.");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+import java.util.UUID;
+
+// Lista de imagens para operações de associação em lote (álbuns e tags).
+public record ImageIdsDTO(
+        @NotEmpty(message = "Informe ao menos uma imagem.")
+        List<@NotNull UUID> imageIds
+) {}
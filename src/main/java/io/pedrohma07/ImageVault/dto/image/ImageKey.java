@@ -0,0 +1,11 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Chave completa da imagem na tabela particionada: com upload_timestamp as consultas por imagem podam as
+// partições que não contêm a linha, em vez de sondar a PK de cada uma.
+public record ImageKey(
+        UUID id,
+        OffsetDateTime uploadTimestamp
+) {}
@@ -0,0 +1,20 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.model.enums.ImageVisibility;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.OffsetDateTime;
+
+// Filtros opcionais da listagem de imagens; campos nulos são ignorados.
+public record ImageListFilter(
+        String contentType,
+        ImageVisibility visibility,
+        Long minSize,
+        Long maxSize,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime uploadedFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime uploadedTo
+) {
+    public static ImageListFilter none() {
+        return new ImageListFilter(null, null, null, null, null, null);
+    }
+}
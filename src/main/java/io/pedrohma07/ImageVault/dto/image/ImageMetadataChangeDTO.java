@@ -0,0 +1,14 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.model.enums.ImageVisibility;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+// Alteração individual de uma atualização em lote; campos nulos são mantidos.
+public record ImageMetadataChangeDTO(
+        @NotNull(message = "O ID da imagem não pode ser nulo.")
+        UUID id,
+        ImageVisibility visibility,
+        String fileName
+) {}
@@ -0,0 +1,29 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+// Posição na busca ordenada por (relevância DESC, id), serializada como token opaco (Base64 URL-safe).
+public record ImageSearchCursor(
+        float score,
+        UUID id
+) {
+    public String encode() {
+        String raw = Float.floatToIntBits(score) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ImageSearchCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new ImageSearchCursor(Float.intBitsToFloat(Integer.parseInt(raw.substring(0, separator))),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor de paginação inválido.");
+        }
+    }
+}
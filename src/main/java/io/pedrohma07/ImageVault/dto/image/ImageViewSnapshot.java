@@ -0,0 +1,23 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+import io.pedrohma07.ImageVault.model.enums.ImageVisibility;
+
+import java.util.UUID;
+
+// O mínimo para servir /view: dono e visibilidade para a checagem de acesso e onde ler o original/thumbnail.
+// Os campos de pack são nulos quando o thumbnail não está empacotado.
+public record ImageViewSnapshot(
+        UUID id,
+        UUID ownerId,
+        ImageVisibility visibility,
+        String contentType,
+        String storageKey,
+        String thumbnailStorageKey,
+        String packStorageKey,
+        Long packOffset,
+        Integer packLength
+) {
+    public boolean isPacked() {
+        return packStorageKey != null;
+    }
+}
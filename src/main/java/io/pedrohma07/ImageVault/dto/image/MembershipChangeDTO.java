@@ -0,0 +1,9 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+// requested: ids distintos enviados; changed: associações criadas/removidas (ids já associados, inexistentes
+// ou de outro usuário são ignorados); imageCount: total do álbum/tag após a operação.
+public record MembershipChangeDTO(
+        int requested,
+        int changed,
+        int imageCount
+) {}
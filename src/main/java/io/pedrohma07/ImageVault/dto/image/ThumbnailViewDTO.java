@@ -0,0 +1,15 @@
+package io.pedrohma07.ImageVault.dto.image;
+
+public record ThumbnailViewDTO(
+        String redirectUrl,
+        byte[] content,
+        String contentType
+) {
+    public static ThumbnailViewDTO redirect(String redirectUrl) {
+        return new ThumbnailViewDTO(redirectUrl, null, null);
+    }
+
+    public static ThumbnailViewDTO content(byte[] content, String contentType) {
+        return new ThumbnailViewDTO(null, content, contentType);
+    }
+}
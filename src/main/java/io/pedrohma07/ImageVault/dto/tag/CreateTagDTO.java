@@ -0,0 +1,10 @@
+package io.pedrohma07.ImageVault.dto.tag;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record CreateTagDTO(
+        @NotBlank(message = "O nome da tag não pode estar em branco.")
+        @Size(max = 100, message = "O nome da tag deve ter no máximo 100 caracteres.")
+        String name
+) {}
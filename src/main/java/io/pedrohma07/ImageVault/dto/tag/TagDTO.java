@@ -0,0 +1,11 @@
+package io.pedrohma07.ImageVault.dto.tag;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public record TagDTO(
+        UUID id,
+        String name,
+        int imageCount,
+        OffsetDateTime createdAt
+) {}
@@ -0,0 +1,8 @@
+package io.pedrohma07.ImageVault.dto.user;
+
+public record StorageUsageDTO(
+        long bytesUsed,
+        int imageCount,
+        long quotaBytes,
+        long bytesAvailable
+) {}
@@ -0,0 +1,16 @@
+package io.pedrohma07.ImageVault.exception;
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException() {
+        super();
+    }
+
+    public BadRequestException(String message) {
+        super(message);
+    }
+
+    public BadRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
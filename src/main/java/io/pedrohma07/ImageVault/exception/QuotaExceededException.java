@@ -0,0 +1,8 @@
+package io.pedrohma07.ImageVault.exception;
+
+public class QuotaExceededException extends RuntimeException {
+
+    public QuotaExceededException(String message) {
+        super(message);
+    }
+}
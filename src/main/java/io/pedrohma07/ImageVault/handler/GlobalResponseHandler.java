@@ -1,10 +1,14 @@
 package io.pedrohma07.ImageVault.handler;
 
 import io.pedrohma07.ImageVault.dto.ApiResponse;
+import io.pedrohma07.ImageVault.exception.BadRequestException;
+import io.pedrohma07.ImageVault.exception.QuotaExceededException;
 import io.pedrohma07.ImageVault.exception.ResourceNotFoundException;
 import io.pedrohma07.ImageVault.exception.TokenRefreshException;
+import io.pedrohma07.ImageVault.exception.TooManyRequestsException;
 import io.pedrohma07.ImageVault.exception.UnauthorizedException;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.core.MethodParameter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -36,8 +40,8 @@ public class GlobalResponseHandler implements ResponseBodyAdvice<Object> {
                                   Class selectedConverterType, ServerHttpRequest request, ServerHttpResponse response) {
         String path = request.getURI().getPath();
 
-        // Não embrulha respostas do Swagger/OpenAPI
-        if (path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui")) {
+        // Não embrulha respostas do Swagger/OpenAPI nem documentos padronizados (ex.: JWKS)
+        if (path.startsWith("/v3/api-docs") || path.startsWith("/swagger-ui") || path.startsWith("/.well-known/")) {
             return body;
         }
 
@@ -46,6 +50,11 @@ public class GlobalResponseHandler implements ResponseBodyAdvice<Object> {
             return body;
         }
 
+        // Conteúdo binário (ex.: thumbnails empacotados) é retornado como está
+        if (body instanceof byte[]) {
+            return body;
+        }
+
         int statusCode = ((org.springframework.http.server.ServletServerHttpResponse) response).getServletResponse().getStatus();
 
         return new ApiResponse<>(statusCode, "Operação realizada com sucesso.", body, path, true, LocalDateTime.now());
@@ -137,6 +146,20 @@ public class GlobalResponseHandler implements ResponseBodyAdvice<Object> {
         );
     }
 
+    // Handler para "Bad Request" - Parâmetros inválidos (ex.: cursor de paginação) (400)
+    @ExceptionHandler(BadRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiResponse<Object> handleBadRequestException(BadRequestException ex, HttpServletRequest request) {
+        return new ApiResponse<>(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                null,
+                request.getRequestURI(),
+                false,
+                LocalDateTime.now()
+        );
+    }
+
     // Handler para "Conflict" - E-mail já existe (409)
     @ExceptionHandler(IllegalArgumentException.class) // Ou uma exceção customizada como EmailAlreadyExistsException
     @ResponseStatus(HttpStatus.CONFLICT)
@@ -151,6 +174,36 @@ public class GlobalResponseHandler implements ResponseBodyAdvice<Object> {
         );
     }
 
+    // Handler para "Too Many Requests" - Limite de tentativas/carga do login (429)
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ApiResponse<Object> handleTooManyRequestsException(TooManyRequestsException ex, HttpServletRequest request,
+                                                              HttpServletResponse response) {
+        response.setHeader("Retry-After", String.valueOf(ex.getRetryAfterSeconds()));
+        return new ApiResponse<>(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                ex.getMessage(),
+                null,
+                request.getRequestURI(),
+                false,
+                LocalDateTime.now()
+        );
+    }
+
+    // Handler para cota de armazenamento excedida (507)
+    @ExceptionHandler(QuotaExceededException.class)
+    @ResponseStatus(HttpStatus.INSUFFICIENT_STORAGE)
+    public ApiResponse<Object> handleQuotaExceededException(QuotaExceededException ex, HttpServletRequest request) {
+        return new ApiResponse<>(
+                HttpStatus.INSUFFICIENT_STORAGE.value(),
+                ex.getMessage(),
+                null,
+                request.getRequestURI(),
+                false,
+                LocalDateTime.now()
+        );
+    }
+
     // Handler para "Bad Request" - Erros de cliente HTTP (400)
     @ExceptionHandler(MaxUploadSizeExceededException.class)
     @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE) // Retorna o status 413
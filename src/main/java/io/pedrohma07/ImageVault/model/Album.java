@@ -0,0 +1,42 @@
+package io.pedrohma07.ImageVault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "albums")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Album {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    @Column(nullable = false)
+    private String name;
+
+    // Mantidos pelos triggers de album_images; somente leitura para a aplicação
+    @Column(name = "image_count", insertable = false, updatable = false)
+    private int imageCount;
+
+    @Column(name = "cover_image_id", insertable = false, updatable = false)
+    private UUID coverImageId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @PrePersist
+    public void onPrePersist() {
+        createdAt = OffsetDateTime.now();
+    }
+}
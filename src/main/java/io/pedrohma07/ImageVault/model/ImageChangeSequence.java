@@ -0,0 +1,26 @@
+package io.pedrohma07.ImageVault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+// Escrito apenas pelos comandos atômicos do ImageChangeSequenceRepository; a entidade serve para leitura.
+@Entity
+@Table(name = "image_change_sequences")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageChangeSequence {
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    @Column(name = "compacted_seq", nullable = false)
+    private long compactedSeq;
+}
@@ -9,6 +9,7 @@ import org.hibernate.proxy.HibernateProxy;
 import org.hibernate.type.SqlTypes;
 
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -20,6 +21,8 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ImageMetadata {
+    // Após o cutover (V17) a PK é (id, upload_timestamp); a entidade segue identificada só pelo id, então
+    // findById e o UPDATE/DELETE gerados pelo Hibernate sondam a PK de cada partição, sem poda.
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
@@ -50,9 +53,11 @@ public class ImageMetadata {
     @Column(name = "thumbnail_storage_key")
     private String thumbnailStorageKey;
 
+    // Na precisão do timestamptz (microssegundos): o valor em memória é o mesmo gravado, e pode ser usado
+    // como chave de partição sem reler a linha.
     @PrePersist
     public void onPrePersist() {
-        uploadTimestamp = OffsetDateTime.now();
+        uploadTimestamp = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 
     @Override
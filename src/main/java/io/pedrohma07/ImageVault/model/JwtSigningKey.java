@@ -0,0 +1,36 @@
+package io.pedrohma07.ImageVault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "jwt_signing_keys")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JwtSigningKey {
+    @Id
+    private String kid;
+
+    @Column(nullable = false)
+    private String algorithm;
+
+    // X.509 (SubjectPublicKeyInfo) em Base64
+    @Column(name = "public_key", nullable = false)
+    private String publicKey;
+
+    // PKCS#8 em Base64, cifrado com o EncryptionService
+    @Column(name = "private_key", nullable = false)
+    private String privateKey;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    // A partir daqui a chave não valida mais tokens e pode ser removida
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+}
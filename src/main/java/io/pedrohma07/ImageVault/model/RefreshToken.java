@@ -19,8 +19,9 @@ public class RefreshToken {
     @Id
     private UUID id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    // SHA-256 do token; o JWT em si nunca é persistido
+    @Column(name = "token_hash", nullable = false, unique = true)
+    private byte[] tokenHash;
 
     @Column(name = "expiry_date", nullable = false)
     private OffsetDateTime expiryDate;
@@ -0,0 +1,26 @@
+package io.pedrohma07.ImageVault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "revoked_tokens")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    private String jti;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    // Expiração do próprio token; depois disso a entrada é desnecessária
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+}
@@ -0,0 +1,34 @@
+package io.pedrohma07.ImageVault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "thumbnail_pack_entries")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThumbnailPackEntry {
+    @Id
+    @Column(name = "image_id")
+    private UUID imageId;
+
+    // Chave de partição da imagem, parte da FK para image_metadata
+    @Column(name = "image_uploaded_at", nullable = false, updatable = false)
+    private OffsetDateTime imageUploadedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "pack_id", nullable = false)
+    private ThumbnailPack pack;
+
+    @Column(name = "byte_offset", nullable = false)
+    private long byteOffset;
+
+    @Column(name = "byte_length", nullable = false)
+    private int byteLength;
+}
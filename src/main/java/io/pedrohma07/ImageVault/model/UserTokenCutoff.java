@@ -0,0 +1,27 @@
+package io.pedrohma07.ImageVault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "user_token_cutoffs")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTokenCutoff {
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "not_before", nullable = false)
+    private OffsetDateTime notBefore;
+
+    // Quando o último access token emitido antes do corte expira
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+}
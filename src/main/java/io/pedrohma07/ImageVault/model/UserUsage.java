@@ -0,0 +1,36 @@
+package io.pedrohma07.ImageVault.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Escrito apenas por UPDATEs atômicos do UserUsageRepository; a entidade serve para leitura.
+@Entity
+@Table(name = "user_usage")
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserUsage {
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "bytes_used", nullable = false)
+    private long bytesUsed;
+
+    @Column(name = "image_count", nullable = false)
+    private int imageCount;
+
+    @Column(name = "quota_bytes")
+    private Long quotaBytes;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "reconciled_at")
+    private OffsetDateTime reconciledAt;
+}
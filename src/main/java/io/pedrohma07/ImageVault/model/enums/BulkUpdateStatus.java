@@ -0,0 +1,8 @@
+package io.pedrohma07.ImageVault.model.enums;
+
+// NOT_FOUND também cobre imagens de outros usuários (indistinguíveis de inexistentes).
+public enum BulkUpdateStatus {
+    UPDATED,
+    NOT_FOUND,
+    INVALID
+}
@@ -0,0 +1,8 @@
+package io.pedrohma07.ImageVault.model.enums;
+
+// CREATED e UPDATED são aplicados pelo cliente como "upsert"; DELETED é um tombstone (sem metadados).
+public enum ImageChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,25 @@
+package io.pedrohma07.ImageVault.model.enums;
+
+// Campos de ordenação da listagem. indexedDescending indica a direção da coluna no índice composto,
+// usada para escolher a direção do desempate por id de forma que o índice possa ser percorrido sem sort.
+public enum ImageSortField {
+    UPLOAD_TIMESTAMP("uploadTimestamp", true),
+    SIZE("size", false),
+    FILE_NAME("fileName", false);
+
+    private final String property;
+    private final boolean indexedDescending;
+
+    ImageSortField(String property, boolean indexedDescending) {
+        this.property = property;
+        this.indexedDescending = indexedDescending;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isIndexedDescending() {
+        return indexedDescending;
+    }
+}
@@ -0,0 +1,59 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.dto.album.AlbumDTO;
+import io.pedrohma07.ImageVault.model.Album;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AlbumRepository extends JpaRepository<Album, UUID> {
+
+    @Query("""
+            SELECT new io.pedrohma07.ImageVault.dto.album.AlbumDTO(a.id, a.name, a.imageCount, a.coverImageId, a.createdAt)
+              FROM Album a
+             WHERE a.id = :id AND a.owner.id = :ownerId
+            """)
+    Optional<AlbumDTO> findDtoByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    @Query("""
+            SELECT new io.pedrohma07.ImageVault.dto.album.AlbumDTO(a.id, a.name, a.imageCount, a.coverImageId, a.createdAt)
+              FROM Album a
+             WHERE a.owner.id = :ownerId
+             ORDER BY a.createdAt DESC, a.id
+            """)
+    List<AlbumDTO> findDtosByOwnerId(@Param("ownerId") UUID ownerId);
+
+    boolean existsByIdAndOwnerId(UUID id, UUID ownerId);
+
+    @Modifying
+    @Query("UPDATE Album a SET a.name = :name WHERE a.id = :id AND a.owner.id = :ownerId")
+    int rename(@Param("id") UUID id, @Param("ownerId") UUID ownerId, @Param("name") String name);
+
+    @Modifying
+    @Query("DELETE FROM Album a WHERE a.id = :id AND a.owner.id = :ownerId")
+    int deleteByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    // Só imagens do próprio dono entram; as que já estão no álbum são ignoradas. Contador e capa vêm do trigger.
+    // Inserção em ordem de id: adições concorrentes com ids em comum travam as linhas na mesma ordem.
+    @Modifying
+    @Query(value = """
+            INSERT INTO dev.album_images (album_id, image_id, image_uploaded_at)
+            SELECT :albumId, i.id, i.upload_timestamp
+              FROM dev.image_metadata i
+             WHERE i.owner_id = :ownerId AND i.id = ANY(:imageIds)
+             ORDER BY i.id
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int addImages(@Param("albumId") UUID albumId, @Param("ownerId") UUID ownerId, @Param("imageIds") UUID[] imageIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM dev.album_images WHERE album_id = :albumId AND image_id = ANY(:imageIds)", nativeQuery = true)
+    int removeImages(@Param("albumId") UUID albumId, @Param("imageIds") UUID[] imageIds);
+}
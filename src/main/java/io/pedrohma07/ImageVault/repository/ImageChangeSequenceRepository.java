@@ -0,0 +1,68 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.ImageChangeSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Repository
+public interface ImageChangeSequenceRepository extends JpaRepository<ImageChangeSequence, UUID> {
+
+    // Reserva um bloco de números na sequência do usuário e grava uma mudança por imagem (ids distintos).
+    // A linha da sequência fica travada até o commit: as mudanças de um usuário são confirmadas na ordem dos
+    // números, então um cliente que leu até N nunca perde um número menor confirmado depois.
+    // CREATED seguido de UPDATED continua CREATED (o cliente pode ainda não ter visto a imagem).
+    // uploadedAts (texto ISO-8601, paralelo a imageIds) guarda a chave de partição da imagem para findChangesSince.
+    @Modifying
+    @Query(value = """
+            WITH seq AS (
+                INSERT INTO dev.image_change_sequences AS s (user_id, last_seq)
+                VALUES (:userId, cardinality(:imageIds))
+                ON CONFLICT (user_id) DO UPDATE SET last_seq = s.last_seq + cardinality(:imageIds)
+                RETURNING s.last_seq
+            )
+            INSERT INTO dev.image_change_log AS c (user_id, image_id, image_uploaded_at, seq, change_type)
+            SELECT :userId, u.image_id, u.image_uploaded_at, seq.last_seq - cardinality(:imageIds) + u.ord, :changeType
+              FROM seq, unnest(:imageIds, CAST(:uploadedAts AS timestamptz[]))
+                        WITH ORDINALITY AS u(image_id, image_uploaded_at, ord)
+            ON CONFLICT (user_id, image_id) DO UPDATE
+               SET seq = EXCLUDED.seq,
+                   image_uploaded_at = EXCLUDED.image_uploaded_at,
+                   change_type = CASE WHEN c.change_type = 'CREATED' AND EXCLUDED.change_type = 'UPDATED'
+                                      THEN c.change_type ELSE EXCLUDED.change_type END,
+                   changed_at = NOW()
+            """, nativeQuery = true)
+    int recordChanges(@Param("userId") UUID userId,
+                      @Param("imageIds") UUID[] imageIds,
+                      @Param("uploadedAts") String[] uploadedAts,
+                      @Param("changeType") String changeType);
+
+    // Remove um lote de tombstones antigos e avança compacted_seq dos usuários afetados. Imagens removidas não
+    // recebem novas mudanças, então o lote nunca disputa linhas do log com recordChanges. Retorna quantos removeu.
+    @Query(value = """
+            WITH doomed AS (
+                SELECT user_id, image_id FROM dev.image_change_log
+                 WHERE change_type = 'DELETED' AND changed_at < :before
+                 ORDER BY changed_at
+                 LIMIT :batchSize
+                   FOR UPDATE SKIP LOCKED
+            ), removed AS (
+                DELETE FROM dev.image_change_log c USING doomed d
+                 WHERE c.user_id = d.user_id AND c.image_id = d.image_id
+                RETURNING c.user_id, c.seq
+            ), advanced AS (
+                UPDATE dev.image_change_sequences s
+                   SET compacted_seq = GREATEST(s.compacted_seq, r.max_seq)
+                  FROM (SELECT user_id, max(seq) AS max_seq FROM removed GROUP BY user_id) r
+                 WHERE s.user_id = r.user_id
+                RETURNING s.user_id
+            )
+            SELECT count(*) FROM removed
+            """, nativeQuery = true)
+    long compactTombstones(@Param("before") OffsetDateTime before, @Param("batchSize") int batchSize);
+}
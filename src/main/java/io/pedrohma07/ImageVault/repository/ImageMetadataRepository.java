@@ -1,15 +1,126 @@
 package io.pedrohma07.ImageVault.repository;
 
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageViewSnapshot;
 import io.pedrohma07.ImageVault.model.ImageMetadata;
-import io.pedrohma07.ImageVault.model.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface ImageMetadataRepository extends JpaRepository<ImageMetadata, UUID>{
-    Page<ImageMetadata> findByOwner(User owner, Pageable pageable);
-}
\ No newline at end of file
+public interface ImageMetadataRepository extends JpaRepository<ImageMetadata, UUID>, ImageMetadataRepositoryCustom {
+
+    // Projeção direto no DTO: só as colunas necessárias, sem entidade gerenciada nem snapshot de dirty checking.
+    // A checagem de dono faz parte do WHERE: imagem de outro usuário é indistinguível de inexistente.
+    // Só o id vem da URL: após o cutover (V17) a busca sonda a PK de cada partição, sem poda.
+    @Query("""
+            SELECT new io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO(
+                   i.id, i.fileName, i.contentType, i.size, i.visibility, i.owner.id, i.uploadTimestamp)
+              FROM ImageMetadata i
+             WHERE i.id = :id AND i.owner.id = :ownerId
+            """)
+    Optional<ImageMetadataDTO> findDtoByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    // Snapshot do caminho de visualização, incluindo a localização do thumbnail empacotado (se houver).
+    // Sem poda de partições: a URL de visualização só traz o id; o resultado fica no ImageViewCache.
+    // Imagens de usuários excluídos (soft delete) somem já na exclusão, antes da purga.
+    @Query("""
+            SELECT new io.pedrohma07.ImageVault.dto.image.ImageViewSnapshot(
+                   i.id, i.owner.id, i.visibility, i.contentType, i.storageKey, i.thumbnailStorageKey,
+                   p.storageKey, e.byteOffset, e.byteLength)
+              FROM ImageMetadata i
+              JOIN i.owner o
+              LEFT JOIN ThumbnailPackEntry e ON e.imageId = i.id
+              LEFT JOIN e.pack p
+             WHERE i.id = :id AND o.deletedAt IS NULL
+            """)
+    Optional<ImageViewSnapshot> findViewSnapshotById(@Param("id") UUID id);
+
+    // Imagens públicas do dono, as únicas que terceiros veem: saem do cache de visualização quando o dono é excluído.
+    @Query(value = "SELECT id FROM dev.image_metadata WHERE owner_id = :ownerId AND visibility = 'PUBLIC'", nativeQuery = true)
+    List<UUID> findPublicIdsByOwnerId(@Param("ownerId") UUID ownerId);
+
+    // Ids informados pelo cliente, sem upload_timestamp: sem poda de partições.
+    List<ImageMetadata> findByOwnerIdAndIdIn(UUID ownerId, Collection<UUID> ids);
+
+    // Próxima página das chaves referenciadas pelos metadados e packs, em ordem binária (mesma ordem do ListObjectsV2),
+    // depois da posição (afterKey, afterKind). Cada ramo lê no máximo "limit" linhas do seu índice COLLATE "C".
+    // "recent": a linha foi criada depois de createdBefore, então o objeto pode não ter aparecido na listagem do bucket.
+    @Query(value = """
+            SELECT k.storage_key AS storageKey, k.kind AS kind, k.created_at >= :createdBefore AS recent FROM (
+                (SELECT storage_key COLLATE "C" AS storage_key, 'ORIGINAL' AS kind, upload_timestamp AS created_at
+                   FROM dev.image_metadata
+                  WHERE storage_key COLLATE "C" >= :afterKey
+                  ORDER BY storage_key COLLATE "C"
+                  LIMIT :limit)
+                UNION ALL
+                (SELECT thumbnail_storage_key COLLATE "C", 'THUMBNAIL', upload_timestamp
+                   FROM dev.image_metadata
+                  WHERE thumbnail_storage_key IS NOT NULL
+                    AND thumbnail_storage_key COLLATE "C" >= :afterKey
+                  ORDER BY thumbnail_storage_key COLLATE "C"
+                  LIMIT :limit)
+                UNION ALL
+                (SELECT storage_key COLLATE "C", 'PACK', created_at
+                   FROM dev.thumbnail_packs
+                  WHERE storage_key COLLATE "C" >= :afterKey
+                  ORDER BY storage_key COLLATE "C"
+                  LIMIT :limit)
+            ) k
+            WHERE (k.storage_key, k.kind) > (:afterKey COLLATE "C", :afterKind)
+            ORDER BY k.storage_key COLLATE "C", k.kind
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<StorageKeyReference> findStorageKeysAfter(@Param("afterKey") String afterKey,
+                                                   @Param("afterKind") String afterKind,
+                                                   @Param("createdBefore") OffsetDateTime createdBefore,
+                                                   @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE dev.image_metadata SET thumbnail_storage_key = NULL WHERE thumbnail_storage_key IN (:storageKeys)", nativeQuery = true)
+    int clearThumbnailStorageKeys(@Param("storageKeys") Collection<String> storageKeys);
+
+    // Imagens com thumbnail avulso ainda não empacotado. Sem lock: o empacotador baixa os thumbnails fora de
+    // transação e confirma com detachLooseThumbnails, que ignora as linhas alteradas nesse meio tempo.
+    @Query(value = """
+            SELECT * FROM dev.image_metadata
+             WHERE thumbnail_storage_key IS NOT NULL
+               AND upload_timestamp < :uploadedBefore
+             ORDER BY upload_timestamp
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<ImageMetadata> findLooseThumbnails(@Param("uploadedBefore") OffsetDateTime uploadedBefore,
+                                            @Param("limit") int limit);
+
+    // Desliga o thumbnail avulso só das imagens que ainda apontam para a mesma chave lida pelo empacotador
+    // (imagens excluídas ou com thumbnail trocado ficam de fora). Retorna os ids efetivamente alterados.
+    // upload_timestamp (texto ISO-8601 convertido para timestamptz[]) restringe cada linha à sua partição.
+    // Sem @Modifying: o RETURNING devolve um result set.
+    @Query(value = """
+            UPDATE dev.image_metadata i
+               SET thumbnail_storage_key = NULL
+              FROM unnest(:ids, CAST(:uploadedAts AS timestamptz[]), :storageKeys) AS p(id, upload_timestamp, storage_key)
+             WHERE i.id = p.id AND i.upload_timestamp = p.upload_timestamp AND i.thumbnail_storage_key = p.storage_key
+            RETURNING i.id
+            """, nativeQuery = true)
+    List<UUID> detachLooseThumbnails(@Param("ids") UUID[] ids,
+                                     @Param("uploadedAts") String[] uploadedAts,
+                                     @Param("storageKeys") String[] storageKeys);
+
+    interface StorageKeyReference {
+        String getStorageKey();
+
+        // ORIGINAL, THUMBNAIL ou PACK
+        String getKind();
+
+        Boolean getRecent();
+    }
+}
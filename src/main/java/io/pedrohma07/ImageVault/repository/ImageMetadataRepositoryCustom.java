@@ -0,0 +1,66 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.dto.image.ImageChangeDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageCursor;
+import io.pedrohma07.ImageVault.dto.image.ImageKey;
+import io.pedrohma07.ImageVault.dto.image.ImageListFilter;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageSearchCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+// Consultas da listagem com filtros dinâmicos, montadas com a Criteria API, e a busca por nome (SQL nativo, pg_trgm).
+public interface ImageMetadataRepositoryCustom {
+
+    Page<ImageMetadataDTO> findDtoPage(UUID ownerId, ImageListFilter filter, Pageable pageable);
+
+    // Ordenado por (upload_timestamp DESC, id); "after" nulo retorna a primeira página.
+    List<ImageMetadataDTO> findDtoSlice(UUID ownerId, ImageListFilter filter, ImageCursor after, int limit);
+
+    long countDto(UUID ownerId, ImageListFilter filter);
+
+    // Ordenado por (relevância DESC, id); "after" nulo retorna a primeira página. Só os primeiros "maxCandidates"
+    // nomes que passam no filtro de trigramas são ranqueados.
+    List<ScoredImage> searchByFileName(UUID ownerId, String query, ImageSearchCursor after, int maxCandidates, int limit);
+
+    // Imagens de um álbum/tag no keyset (upload_timestamp DESC, id); a posse do álbum/tag é checada pelo chamador.
+    List<ImageMetadataDTO> findDtoSliceByAlbum(UUID albumId, ImageCursor after, int limit);
+
+    List<ImageMetadataDTO> findDtoSliceByTag(UUID tagId, ImageCursor after, int limit);
+
+    // Imagens PUBLIC de todos os usuários no keyset (upload_timestamp DESC, id).
+    List<ImageMetadataDTO> findPublicDtoSlice(ImageCursor after, int limit);
+
+    // Mudanças do usuário com seq > "since", em ordem de seq, com os metadados atuais das imagens não removidas.
+    List<ImageChangeDTO> findChangesSince(UUID ownerId, long since, int limit);
+
+    // Alteração uniforme em lote: um único UPDATE set-based; retorna as chaves das imagens efetivamente alteradas
+    // (do próprio dono). Os ids vêm do cliente sem upload_timestamp, então o UPDATE não poda partições.
+    List<ImageKey> updateVisibility(UUID ownerId, UUID[] ids, String visibility);
+
+    // Devolve chave, dono e tamanho de cada linha removida, para o acerto do uso e os tombstones do log de mudanças.
+    List<DeletedImage> deleteByStorageKeys(Collection<String> storageKeys);
+
+    // Remove um lote de imagens do dono (keyset upload_timestamp DESC, id) e enfileira as chaves no outbox de
+    // exclusão, num único comando. Retorna null quando não há mais imagens a partir de "after".
+    PurgedBatch purgeOwnerBatch(UUID ownerId, ImageCursor after, int limit);
+
+    record ScoredImage(ImageMetadataDTO image, float score) {}
+
+    record DeletedImage(UUID id, OffsetDateTime uploadTimestamp, UUID ownerId, long size) {
+        public ImageKey key() {
+            return new ImageKey(id, uploadTimestamp);
+        }
+    }
+
+    record PurgedBatch(List<ImageKey> imageKeys, long bytes, ImageCursor last) {
+        public int images() {
+            return imageKeys.size();
+        }
+    }
+}
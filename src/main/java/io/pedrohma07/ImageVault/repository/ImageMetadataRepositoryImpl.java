@@ -0,0 +1,343 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.dto.image.ImageChangeDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageCursor;
+import io.pedrohma07.ImageVault.dto.image.ImageKey;
+import io.pedrohma07.ImageVault.dto.image.ImageListFilter;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageSearchCursor;
+import io.pedrohma07.ImageVault.model.ImageMetadata;
+import io.pedrohma07.ImageVault.model.enums.ImageChangeType;
+import io.pedrohma07.ImageVault.model.enums.ImageVisibility;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class ImageMetadataRepositoryImpl implements ImageMetadataRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<ImageMetadataDTO> findDtoPage(UUID ownerId, ImageListFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ImageMetadataDTO> query = cb.createQuery(ImageMetadataDTO.class);
+        Root<ImageMetadata> root = query.from(ImageMetadata.class);
+
+        query.select(projection(cb, root))
+                .where(predicates(cb, root, ownerId, filter).toArray(Predicate[]::new))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        List<ImageMetadataDTO> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        // Evita o COUNT quando a página já revela o total (primeira página incompleta)
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        return new PageImpl<>(content, pageable, countDto(ownerId, filter));
+    }
+
+    @Override
+    public List<ImageMetadataDTO> findDtoSlice(UUID ownerId, ImageListFilter filter, ImageCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ImageMetadataDTO> query = cb.createQuery(ImageMetadataDTO.class);
+        Root<ImageMetadata> root = query.from(ImageMetadata.class);
+
+        List<Predicate> predicates = predicates(cb, root, ownerId, filter);
+        if (after != null) {
+            // O OR não vira condição de índice; o "<=" redundante dá ao planner o limite do range scan
+            // (e a poda de partições de upload_timestamp).
+            predicates.add(cb.lessThanOrEqualTo(root.get("uploadTimestamp"), after.uploadTimestamp()));
+            predicates.add(cb.or(
+                    cb.lessThan(root.get("uploadTimestamp"), after.uploadTimestamp()),
+                    cb.and(cb.equal(root.get("uploadTimestamp"), after.uploadTimestamp()),
+                            cb.greaterThan(root.<UUID>get("id"), after.id()))));
+        }
+
+        query.select(projection(cb, root))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.desc(root.get("uploadTimestamp")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public long countDto(UUID ownerId, ImageListFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<ImageMetadata> root = query.from(ImageMetadata.class);
+        query.select(cb.count(root)).where(predicates(cb, root, ownerId, filter).toArray(Predicate[]::new));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // "q <% file_name" usa o índice GIN de trigramas e descarta nomes abaixo de pg_trgm.word_similarity_threshold.
+    // word_similarity compara a busca com o trecho mais parecido do nome, então "praia" encontra "ferias_praia_01.jpg".
+    // Nenhum índice entrega as linhas em ordem de relevância: todos os nomes que passam no filtro são lidos e
+    // ordenados. O LIMIT interno limita esse trabalho a "maxCandidates" linhas (as primeiras do bitmap scan, em
+    // ordem física); buscas mais amplas que isso são ranqueadas só entre esses candidatos.
+    @Override
+    public List<ScoredImage> searchByFileName(UUID ownerId, String query, ImageSearchCursor after, int maxCandidates,
+                                              int limit) {
+        String sql = """
+                SELECT id, file_name, content_type, size, visibility, owner_id, upload_timestamp, score
+                  FROM (SELECT i.*, word_similarity(:q, i.file_name) AS score
+                          FROM dev.image_metadata i
+                         WHERE i.owner_id = :ownerId
+                           AND :q <% i.file_name
+                         LIMIT :maxCandidates) m
+                """
+                + (after == null ? "" : " WHERE m.score < :afterScore OR (m.score = :afterScore AND m.id > :afterId)")
+                + " ORDER BY m.score DESC, m.id LIMIT :limit";
+
+        NativeQuery<Object[]> nativeQuery = dtoNativeQuery(sql).addScalar("score", Float.class);
+        nativeQuery.setParameter("q", query)
+                .setParameter("ownerId", ownerId)
+                .setParameter("maxCandidates", maxCandidates)
+                .setParameter("limit", limit);
+        if (after != null) {
+            nativeQuery.setParameter("afterScore", after.score())
+                    .setParameter("afterId", after.id());
+        }
+
+        return nativeQuery.getResultList().stream()
+                .map(row -> new ScoredImage(toDto(row), (Float) row[7]))
+                .toList();
+    }
+
+    @Override
+    public List<ImageMetadataDTO> findDtoSliceByAlbum(UUID albumId, ImageCursor after, int limit) {
+        return findDtoSliceByMembership("dev.album_images", "album_id", albumId, after, limit);
+    }
+
+    @Override
+    public List<ImageMetadataDTO> findDtoSliceByTag(UUID tagId, ImageCursor after, int limit) {
+        return findDtoSliceByMembership("dev.image_tags", "tag_id", tagId, after, limit);
+    }
+
+    // Percorre o índice parcial idx_image_metadata_public_upload_timestamp (V18). Donos excluídos (soft delete)
+    // saem do feed já na exclusão; a purga das imagens só vem depois do período de carência. O anti-join pela PK
+    // de users não muda a ordem do índice.
+    @Override
+    public List<ImageMetadataDTO> findPublicDtoSlice(ImageCursor after, int limit) {
+        String sql = "SELECT i.id, i.file_name, i.content_type, i.size, i.visibility, i.owner_id, i.upload_timestamp"
+                + " FROM dev.image_metadata i WHERE i.visibility = 'PUBLIC'"
+                + " AND NOT EXISTS (SELECT 1 FROM dev.users u WHERE u.id = i.owner_id AND u.deleted_at IS NOT NULL)"
+                + (after == null ? "" : " AND i.upload_timestamp <= :afterTimestamp AND (i.upload_timestamp < :afterTimestamp"
+                        + " OR (i.upload_timestamp = :afterTimestamp AND i.id > :afterId))")
+                + " ORDER BY i.upload_timestamp DESC, i.id LIMIT :limit";
+
+        NativeQuery<Object[]> nativeQuery = dtoNativeQuery(sql);
+        nativeQuery.setParameter("limit", limit);
+        if (after != null) {
+            nativeQuery.setParameter("afterTimestamp", after.uploadTimestamp())
+                    .setParameter("afterId", after.id());
+        }
+        return nativeQuery.getResultList().stream().map(this::toDto).toList();
+    }
+
+    // Percorre idx_image_change_log_user_seq (V20); os metadados vêm pela PK de image_metadata, só para a página.
+    // image_uploaded_at (V23) completa a chave, então cada linha do log lê só a partição da sua imagem.
+    @Override
+    public List<ImageChangeDTO> findChangesSince(UUID ownerId, long since, int limit) {
+        String sql = "SELECT i.id, i.file_name, i.content_type, i.size, i.visibility, i.owner_id, i.upload_timestamp,"
+                + " c.seq, c.image_id AS change_image_id, c.change_type"
+                + " FROM dev.image_change_log c"
+                + " LEFT JOIN dev.image_metadata i"
+                + " ON i.id = c.image_id AND i.upload_timestamp = c.image_uploaded_at"
+                + " AND i.owner_id = c.user_id AND c.change_type <> 'DELETED'"
+                + " WHERE c.user_id = :ownerId AND c.seq > :since"
+                + " ORDER BY c.seq LIMIT :limit";
+
+        NativeQuery<Object[]> nativeQuery = dtoNativeQuery(sql)
+                .addScalar("seq", Long.class)
+                .addScalar("change_image_id", UUID.class)
+                .addScalar("change_type", String.class);
+        nativeQuery.setParameter("ownerId", ownerId)
+                .setParameter("since", since)
+                .setParameter("limit", limit);
+
+        return nativeQuery.getResultList().stream()
+                .map(row -> new ImageChangeDTO((Long) row[7], (UUID) row[8], ImageChangeType.valueOf((String) row[9]),
+                        row[0] == null ? null : toDto(row)))
+                .toList();
+    }
+
+    @Override
+    public List<ImageKey> updateVisibility(UUID ownerId, UUID[] ids, String visibility) {
+        String sql = "UPDATE dev.image_metadata SET visibility = CAST(:visibility AS dev.image_visibility)"
+                + " WHERE owner_id = :ownerId AND id = ANY(:ids)"
+                + " RETURNING id, upload_timestamp";
+
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> nativeQuery = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("upload_timestamp", OffsetDateTime.class);
+        nativeQuery.setParameter("ownerId", ownerId)
+                .setParameter("ids", ids)
+                .setParameter("visibility", visibility);
+
+        return nativeQuery.getResultList().stream()
+                .map(row -> new ImageKey((UUID) row[0], (OffsetDateTime) row[1]))
+                .toList();
+    }
+
+    @Override
+    public List<DeletedImage> deleteByStorageKeys(Collection<String> storageKeys) {
+        String sql = "DELETE FROM dev.image_metadata WHERE storage_key IN (:storageKeys)"
+                + " RETURNING id, upload_timestamp, owner_id, size";
+
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> nativeQuery = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("upload_timestamp", OffsetDateTime.class)
+                .addScalar("owner_id", UUID.class)
+                .addScalar("size", Long.class);
+        nativeQuery.setParameter("storageKeys", storageKeys);
+
+        return nativeQuery.getResultList().stream()
+                .map(row -> new DeletedImage((UUID) row[0], (OffsetDateTime) row[1], (UUID) row[2], (Long) row[3]))
+                .toList();
+    }
+
+    // SKIP LOCKED: linhas em uso por outra transação (ou outro nó purgando) ficam para a próxima execução.
+    // As exclusões de thumbnail_pack_entries, album_images e image_tags vêm pelo ON DELETE CASCADE.
+    // O DELETE casa (id, upload_timestamp) do lote, então cada linha é removida só na sua partição.
+    @Override
+    public PurgedBatch purgeOwnerBatch(UUID ownerId, ImageCursor after, int limit) {
+        String sql = "WITH batch AS (SELECT i.id, i.upload_timestamp FROM dev.image_metadata i"
+                + " WHERE i.owner_id = :ownerId"
+                + (after == null ? "" : " AND i.upload_timestamp <= :afterTimestamp AND (i.upload_timestamp < :afterTimestamp"
+                        + " OR (i.upload_timestamp = :afterTimestamp AND i.id > :afterId))")
+                + " ORDER BY i.upload_timestamp DESC, i.id LIMIT :limit FOR UPDATE SKIP LOCKED),"
+                + " deleted AS (DELETE FROM dev.image_metadata i USING batch b"
+                + " WHERE i.id = b.id AND i.upload_timestamp = b.upload_timestamp"
+                + " RETURNING i.id, i.upload_timestamp, i.storage_key, i.thumbnail_storage_key, i.size),"
+                + " enqueued AS (INSERT INTO dev.storage_deletion_outbox (storage_key)"
+                + " SELECT k.storage_key FROM deleted d"
+                + " CROSS JOIN LATERAL (VALUES (d.storage_key), (d.thumbnail_storage_key)) AS k(storage_key)"
+                + " WHERE k.storage_key IS NOT NULL),"
+                + " last AS (SELECT upload_timestamp, id FROM batch ORDER BY upload_timestamp, id DESC LIMIT 1)"
+                + " SELECT d.id AS image_id, d.upload_timestamp AS image_uploaded_at, d.size, l.upload_timestamp, l.id"
+                + " FROM deleted d CROSS JOIN last l";
+
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> nativeQuery = entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("image_id", UUID.class)
+                .addScalar("image_uploaded_at", OffsetDateTime.class)
+                .addScalar("size", Long.class)
+                .addScalar("upload_timestamp", OffsetDateTime.class)
+                .addScalar("id", UUID.class);
+        nativeQuery.setParameter("ownerId", ownerId)
+                .setParameter("limit", limit);
+        if (after != null) {
+            nativeQuery.setParameter("afterTimestamp", after.uploadTimestamp())
+                    .setParameter("afterId", after.id());
+        }
+
+        List<Object[]> rows = nativeQuery.getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        // Uma linha por imagem removida; o cursor (última do lote) se repete em todas
+        Object[] row = rows.get(0);
+        return new PurgedBatch(rows.stream().map(r -> new ImageKey((UUID) r[0], (OffsetDateTime) r[1])).toList(),
+                rows.stream().mapToLong(r -> (Long) r[2]).sum(),
+                new ImageCursor((OffsetDateTime) row[3], (UUID) row[4]));
+    }
+
+    // ** Metodos auxiliares **
+
+    // Percorre o índice (chave, image_uploaded_at DESC, image_id) da tabela de associação no mesmo keyset da
+    // listagem de imagens e busca só as linhas da página em image_metadata. A igualdade em upload_timestamp
+    // permite podar as partições de image_metadata que não contêm a linha.
+    private List<ImageMetadataDTO> findDtoSliceByMembership(String table, String keyColumn, UUID key,
+                                                           ImageCursor after, int limit) {
+        String sql = "SELECT i.id, i.file_name, i.content_type, i.size, i.visibility, i.owner_id, i.upload_timestamp"
+                + " FROM " + table + " m JOIN dev.image_metadata i"
+                + " ON i.id = m.image_id AND i.upload_timestamp = m.image_uploaded_at"
+                + " WHERE m." + keyColumn + " = :key"
+                + (after == null ? "" : " AND m.image_uploaded_at <= :afterTimestamp AND (m.image_uploaded_at < :afterTimestamp"
+                        + " OR (m.image_uploaded_at = :afterTimestamp AND m.image_id > :afterId))")
+                + " ORDER BY m.image_uploaded_at DESC, m.image_id LIMIT :limit";
+
+        NativeQuery<Object[]> nativeQuery = dtoNativeQuery(sql);
+        nativeQuery.setParameter("key", key)
+                .setParameter("limit", limit);
+        if (after != null) {
+            nativeQuery.setParameter("afterTimestamp", after.uploadTimestamp())
+                    .setParameter("afterId", after.id());
+        }
+        return nativeQuery.getResultList().stream().map(this::toDto).toList();
+    }
+
+    // Colunas do ImageMetadataDTO, nesta ordem, no início do SELECT nativo
+    @SuppressWarnings("unchecked")
+    private NativeQuery<Object[]> dtoNativeQuery(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", UUID.class)
+                .addScalar("file_name", String.class)
+                .addScalar("content_type", String.class)
+                .addScalar("size", Long.class)
+                .addScalar("visibility", String.class)
+                .addScalar("owner_id", UUID.class)
+                .addScalar("upload_timestamp", OffsetDateTime.class);
+    }
+
+    private ImageMetadataDTO toDto(Object[] row) {
+        return new ImageMetadataDTO((UUID) row[0], (String) row[1], (String) row[2], (Long) row[3],
+                ImageVisibility.valueOf((String) row[4]), (UUID) row[5], (OffsetDateTime) row[6]);
+    }
+
+    // owner.id é a coluna owner_id (sem join); todas as consultas começam pelo prefixo owner_id dos índices.
+    private CompoundSelection<ImageMetadataDTO> projection(CriteriaBuilder cb, Root<ImageMetadata> root) {
+        return cb.construct(ImageMetadataDTO.class,
+                root.get("id"), root.get("fileName"), root.get("contentType"), root.get("size"),
+                root.get("visibility"), root.get("owner").get("id"), root.get("uploadTimestamp"));
+    }
+
+    private List<Predicate> predicates(CriteriaBuilder cb, Root<ImageMetadata> root, UUID ownerId, ImageListFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("owner").get("id"), ownerId));
+        if (filter.contentType() != null) {
+            predicates.add(cb.equal(root.get("contentType"), filter.contentType()));
+        }
+        if (filter.visibility() != null) {
+            predicates.add(cb.equal(root.get("visibility"), filter.visibility()));
+        }
+        if (filter.minSize() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("size"), filter.minSize()));
+        }
+        if (filter.maxSize() != null) {
+            predicates.add(cb.lessThanOrEqualTo(root.get("size"), filter.maxSize()));
+        }
+        if (filter.uploadedFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<OffsetDateTime>get("uploadTimestamp"), filter.uploadedFrom()));
+        }
+        if (filter.uploadedTo() != null) {
+            predicates.add(cb.lessThan(root.<OffsetDateTime>get("uploadTimestamp"), filter.uploadedTo()));
+        }
+        return predicates;
+    }
+}
@@ -0,0 +1,19 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    List<JwtSigningKey> findByExpiresAtAfterOrderByCreatedAtDesc(OffsetDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.expiresAt <= :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
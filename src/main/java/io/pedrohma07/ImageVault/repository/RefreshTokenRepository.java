@@ -1,13 +1,46 @@
 package io.pedrohma07.ImageVault.repository;
 
 import io.pedrohma07.ImageVault.model.RefreshToken;
-import io.pedrohma07.ImageVault.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
-    Optional<RefreshToken> findByToken(String token);
+    Optional<RefreshToken> findByTokenHash(byte[] tokenHash);
+
+    // Rotação do token do usuário em um único comando (um token ativo por usuário).
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO dev.refresh_tokens (id, token_hash, expiry_date, user_id)
+            VALUES (gen_random_uuid(), :tokenHash, :expiryDate, :userId)
+            ON CONFLICT (user_id)
+            DO UPDATE SET token_hash = EXCLUDED.token_hash, expiry_date = EXCLUDED.expiry_date
+            """, nativeQuery = true)
+    int rotate(@Param("userId") UUID userId,
+               @Param("tokenHash") byte[] tokenHash,
+               @Param("expiryDate") OffsetDateTime expiryDate);
+
+    // Remove um lote limitado de tokens expirados; SKIP LOCKED permite rodar em vários nós.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM dev.refresh_tokens
+             WHERE id IN (SELECT id FROM dev.refresh_tokens
+                           WHERE expiry_date < NOW()
+                           ORDER BY expiry_date
+                           LIMIT :batchSize
+                           FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("batchSize") int batchSize);
 
-    void deleteByUser(User user);
-}
\ No newline at end of file
+    @Modifying
+    @Query(value = "DELETE FROM dev.refresh_tokens WHERE user_id = :userId", nativeQuery = true)
+    int deleteByUserId(@Param("userId") UUID userId);
+}
@@ -0,0 +1,32 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    List<RevokedToken> findByExpiresAtAfter(OffsetDateTime now);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO dev.revoked_tokens (jti, user_id, expires_at)
+            VALUES (:jti, :userId, :expiresAt)
+            ON CONFLICT (jti) DO NOTHING
+            """, nativeQuery = true)
+    int insertIgnoringDuplicates(@Param("jti") String jti,
+                                 @Param("userId") UUID userId,
+                                 @Param("expiresAt") OffsetDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
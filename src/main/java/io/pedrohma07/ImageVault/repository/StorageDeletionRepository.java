@@ -0,0 +1,42 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.StorageDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, Long> {
+
+    // Reivindica um lote de exclusões pendentes. SKIP LOCKED permite vários nós drenando ao mesmo tempo,
+    // e o "lease" em next_attempt_at devolve o lote para a fila caso o nó morra no meio do processamento.
+    @Transactional
+    @Query(value = """
+            UPDATE dev.storage_deletion_outbox
+               SET next_attempt_at = NOW() + make_interval(secs => :leaseSeconds)
+             WHERE id IN (SELECT id FROM dev.storage_deletion_outbox
+                           WHERE next_attempt_at <= NOW()
+                           ORDER BY next_attempt_at
+                           LIMIT :batchSize
+                           FOR UPDATE SKIP LOCKED)
+            RETURNING *
+            """, nativeQuery = true)
+    List<StorageDeletion> claimBatch(@Param("batchSize") int batchSize, @Param("leaseSeconds") int leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE dev.storage_deletion_outbox
+               SET attempts = attempts + 1,
+                   last_error = :error,
+                   next_attempt_at = NOW() + make_interval(secs => LEAST(:baseSeconds * power(2, attempts), :maxSeconds))
+             WHERE id IN (:ids)
+            """, nativeQuery = true)
+    int markFailed(@Param("ids") List<Long> ids,
+                   @Param("error") String error,
+                   @Param("baseSeconds") int baseSeconds,
+                   @Param("maxSeconds") int maxSeconds);
+}
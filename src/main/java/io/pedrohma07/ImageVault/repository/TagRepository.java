@@ -0,0 +1,56 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.dto.tag.TagDTO;
+import io.pedrohma07.ImageVault.model.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TagRepository extends JpaRepository<Tag, UUID> {
+
+    @Query("""
+            SELECT new io.pedrohma07.ImageVault.dto.tag.TagDTO(t.id, t.name, t.imageCount, t.createdAt)
+              FROM Tag t
+             WHERE t.id = :id AND t.owner.id = :ownerId
+            """)
+    Optional<TagDTO> findDtoByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    @Query("""
+            SELECT new io.pedrohma07.ImageVault.dto.tag.TagDTO(t.id, t.name, t.imageCount, t.createdAt)
+              FROM Tag t
+             WHERE t.owner.id = :ownerId
+             ORDER BY t.name
+            """)
+    List<TagDTO> findDtosByOwnerId(@Param("ownerId") UUID ownerId);
+
+    boolean existsByIdAndOwnerId(UUID id, UUID ownerId);
+
+    boolean existsByOwnerIdAndName(UUID ownerId, String name);
+
+    @Modifying
+    @Query("DELETE FROM Tag t WHERE t.id = :id AND t.owner.id = :ownerId")
+    int deleteByIdAndOwnerId(@Param("id") UUID id, @Param("ownerId") UUID ownerId);
+
+    // Mesmo formato de AlbumRepository.addImages; o contador vem do trigger.
+    @Modifying
+    @Query(value = """
+            INSERT INTO dev.image_tags (tag_id, image_id, image_uploaded_at)
+            SELECT :tagId, i.id, i.upload_timestamp
+              FROM dev.image_metadata i
+             WHERE i.owner_id = :ownerId AND i.id = ANY(:imageIds)
+             ORDER BY i.id
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int addImages(@Param("tagId") UUID tagId, @Param("ownerId") UUID ownerId, @Param("imageIds") UUID[] imageIds);
+
+    @Modifying
+    @Query(value = "DELETE FROM dev.image_tags WHERE tag_id = :tagId AND image_id = ANY(:imageIds)", nativeQuery = true)
+    int removeImages(@Param("tagId") UUID tagId, @Param("imageIds") UUID[] imageIds);
+}
@@ -0,0 +1,30 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.ThumbnailPack;
+import io.pedrohma07.ImageVault.model.ThumbnailPackEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ThumbnailPackEntryRepository extends JpaRepository<ThumbnailPackEntry, UUID> {
+
+    @Query("select e from ThumbnailPackEntry e where e.pack = :pack order by e.byteOffset")
+    List<ThumbnailPackEntry> findByPack(@Param("pack") ThumbnailPack pack);
+
+    // Move para o novo pack as entradas que ainda estão no pack antigo (as removidas nesse meio tempo ficam de
+    // fora). Retorna os ids das imagens movidas. Sem @Modifying: o RETURNING devolve um result set.
+    @Query(value = """
+            UPDATE dev.thumbnail_pack_entries e
+               SET pack_id = :newPackId, byte_offset = p.byte_offset
+              FROM unnest(:imageIds, :byteOffsets) AS p(image_id, byte_offset)
+             WHERE e.image_id = p.image_id AND e.pack_id = :oldPackId
+            RETURNING e.image_id
+            """, nativeQuery = true)
+    List<UUID> moveEntries(@Param("oldPackId") UUID oldPackId,
+                           @Param("newPackId") UUID newPackId,
+                           @Param("imageIds") UUID[] imageIds,
+                           @Param("byteOffsets") Long[] byteOffsets);
+}
@@ -0,0 +1,32 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.ThumbnailPack;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface ThumbnailPackRepository extends JpaRepository<ThumbnailPack, UUID> {
+
+    // Packs cuja fração de bytes vivos caiu abaixo do limite. Sem lock: a compactação é exclusiva por advisory
+    // lock e a troca das entradas é condicional (ThumbnailPackEntryRepository.moveEntries).
+    @Query(value = """
+            SELECT * FROM dev.thumbnail_packs
+             WHERE live_bytes < total_bytes * :threshold
+             ORDER BY live_bytes::float8 / total_bytes
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<ThumbnailPack> findSparsePacks(@Param("threshold") double threshold, @Param("limit") int limit);
+
+    // Remove o pack apenas se nenhuma entrada ainda aponta para ele; retorna 1 se removeu.
+    @Modifying
+    @Query(value = """
+            DELETE FROM dev.thumbnail_packs p
+             WHERE p.id = :id
+               AND NOT EXISTS (SELECT 1 FROM dev.thumbnail_pack_entries e WHERE e.pack_id = p.id)
+            """, nativeQuery = true)
+    int deleteIfEmpty(@Param("id") UUID id);
+}
@@ -3,12 +3,34 @@ package io.pedrohma07.ImageVault.repository;
 import io.pedrohma07.ImageVault.model.User;
 import jakarta.annotation.Nonnull;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
+    // Consultas nativas: o @SQLRestriction da entidade esconde os usuários removidos
+    @Query(value = """
+            SELECT id FROM dev.users
+             WHERE deleted_at IS NOT NULL AND images_purged_at IS NULL
+               AND deleted_at < :deletedBefore
+             ORDER BY deleted_at
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<UUID> findPendingImagePurge(@Param("deletedBefore") OffsetDateTime deletedBefore, @Param("limit") int limit);
 
+    // Só marca quando não restou nenhuma imagem (linhas puladas por lock voltam na próxima execução)
+    @Modifying
+    @Query(value = """
+            UPDATE dev.users SET images_purged_at = NOW()
+             WHERE id = :userId
+               AND NOT EXISTS (SELECT 1 FROM dev.image_metadata i WHERE i.owner_id = :userId)
+            """, nativeQuery = true)
+    int markImagesPurged(@Param("userId") UUID userId);
 }
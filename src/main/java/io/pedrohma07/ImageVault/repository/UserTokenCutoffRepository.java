@@ -0,0 +1,33 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.UserTokenCutoff;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserTokenCutoffRepository extends JpaRepository<UserTokenCutoff, UUID> {
+
+    List<UserTokenCutoff> findByExpiresAtAfter(OffsetDateTime now);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO dev.user_token_cutoffs (user_id, not_before, expires_at)
+            VALUES (:userId, :notBefore, :expiresAt)
+            ON CONFLICT (user_id)
+            DO UPDATE SET not_before = EXCLUDED.not_before, expires_at = EXCLUDED.expires_at
+            """, nativeQuery = true)
+    int upsert(@Param("userId") UUID userId,
+               @Param("notBefore") OffsetDateTime notBefore,
+               @Param("expiresAt") OffsetDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM UserTokenCutoff c WHERE c.expiresAt < :now")
+    int deleteExpired(@Param("now") OffsetDateTime now);
+}
@@ -0,0 +1,72 @@
+package io.pedrohma07.ImageVault.repository;
+
+import io.pedrohma07.ImageVault.model.UserUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserUsageRepository extends JpaRepository<UserUsage, UUID> {
+
+    @Modifying
+    @Query(value = "INSERT INTO dev.user_usage (user_id) VALUES (:userId) ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int ensureExists(@Param("userId") UUID userId);
+
+    // Incremento condicional: a checagem e a soma acontecem sob o lock da linha, então uploads concorrentes
+    // do mesmo usuário são serializados só neste comando e nunca ultrapassam a cota juntos. 0 = cota excedida.
+    @Modifying
+    @Query(value = """
+            UPDATE dev.user_usage
+               SET bytes_used = bytes_used + :bytes,
+                   image_count = image_count + 1,
+                   updated_at = NOW()
+             WHERE user_id = :userId
+               AND bytes_used + :bytes <= COALESCE(quota_bytes, :defaultQuota)
+            """, nativeQuery = true)
+    int reserve(@Param("userId") UUID userId, @Param("bytes") long bytes, @Param("defaultQuota") long defaultQuota);
+
+    @Modifying
+    @Query(value = """
+            UPDATE dev.user_usage
+               SET bytes_used = GREATEST(bytes_used - :bytes, 0),
+                   image_count = GREATEST(image_count - :images, 0),
+                   updated_at = NOW()
+             WHERE user_id = :userId
+            """, nativeQuery = true)
+    int release(@Param("userId") UUID userId, @Param("bytes") long bytes, @Param("images") int images);
+
+    // Trava um lote de linhas (em ordem de user_id) antes de recalcular; ver StorageUsageService.reconcile.
+    @Query(value = """
+            SELECT user_id FROM dev.user_usage
+             WHERE user_id > :afterUserId
+             ORDER BY user_id
+             LIMIT :batchSize
+             FOR UPDATE
+            """, nativeQuery = true)
+    List<UUID> lockBatch(@Param("afterUserId") UUID afterUserId, @Param("batchSize") int batchSize);
+
+    // Recalcula a partir de image_metadata (usa o índice por owner_id) e corrige só as linhas divergentes.
+    @Modifying
+    @Query(value = """
+            UPDATE dev.user_usage u
+               SET bytes_used = a.bytes,
+                   image_count = a.images,
+                   updated_at = NOW()
+              FROM (SELECT b.user_id, COALESCE(SUM(i.size), 0) AS bytes, COUNT(i.id) AS images
+                      FROM unnest(:userIds) AS b(user_id)
+                      LEFT JOIN dev.image_metadata i ON i.owner_id = b.user_id
+                     GROUP BY b.user_id) a
+             WHERE u.user_id = a.user_id
+               AND (u.bytes_used <> a.bytes OR u.image_count <> a.images)
+            """, nativeQuery = true)
+    int correctDrift(@Param("userIds") UUID[] userIds);
+
+    @Modifying
+    @Query(value = "UPDATE dev.user_usage SET reconciled_at = NOW() WHERE user_id = ANY(:userIds)", nativeQuery = true)
+    int markReconciled(@Param("userIds") UUID[] userIds);
+}
@@ -0,0 +1,143 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.pedrohma07.ImageVault.dto.CursorPageResponse;
+import io.pedrohma07.ImageVault.dto.album.AlbumDTO;
+import io.pedrohma07.ImageVault.dto.album.AlbumRequestDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageCursor;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.MembershipChangeDTO;
+import io.pedrohma07.ImageVault.exception.BadRequestException;
+import io.pedrohma07.ImageVault.exception.ResourceNotFoundException;
+import io.pedrohma07.ImageVault.model.Album;
+import io.pedrohma07.ImageVault.repository.AlbumRepository;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import io.pedrohma07.ImageVault.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Álbuns do usuário. As associações são gravadas em lote com um único INSERT/DELETE por chamada;
+ * contador de imagens e capa são mantidos por triggers no banco, sem COUNT(*) na leitura.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class AlbumService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final AlbumRepository albumRepository;
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final UserRepository userRepository;
+
+    @Value("${app.collections.max-images-per-call}")
+    private int maxImagesPerCall;
+
+    public AlbumDTO createAlbum(UUID userId, AlbumRequestDTO request) {
+        Album album = albumRepository.save(Album.builder()
+                .owner(userRepository.getReferenceById(userId))
+                .name(request.name().trim())
+                .build());
+        log.info("Created album {} for user {}", album.getId(), userId);
+        return new AlbumDTO(album.getId(), album.getName(), 0, null, album.getCreatedAt());
+    }
+
+    @Transactional(readOnly = true)
+    public List<AlbumDTO> listAlbums(UUID userId) {
+        return albumRepository.findDtosByOwnerId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public AlbumDTO findAlbum(UUID albumId, UUID userId) {
+        return findAlbumDto(albumId, userId);
+    }
+
+    public AlbumDTO renameAlbum(UUID albumId, UUID userId, AlbumRequestDTO request) {
+        if (albumRepository.rename(albumId, userId, request.name().trim()) == 0) {
+            throw albumNotFound(albumId);
+        }
+        log.info("Renamed album {}", albumId);
+        return findAlbumDto(albumId, userId);
+    }
+
+    // As associações saem por ON DELETE CASCADE; as imagens continuam existindo.
+    public void deleteAlbum(UUID albumId, UUID userId) {
+        if (albumRepository.deleteByIdAndOwnerId(albumId, userId) == 0) {
+            throw albumNotFound(albumId);
+        }
+        log.info("Deleted album {}", albumId);
+    }
+
+    public MembershipChangeDTO addImages(UUID albumId, UUID userId, List<UUID> imageIds) {
+        UUID[] ids = distinctIds(imageIds);
+        checkAlbumOwner(albumId, userId);
+
+        int added = albumRepository.addImages(albumId, userId, ids);
+        AlbumDTO album = findAlbumDto(albumId, userId);
+        log.info("Added {} of {} images to album {}", added, ids.length, albumId);
+        return new MembershipChangeDTO(ids.length, added, album.imageCount());
+    }
+
+    public MembershipChangeDTO removeImages(UUID albumId, UUID userId, List<UUID> imageIds) {
+        UUID[] ids = distinctIds(imageIds);
+        checkAlbumOwner(albumId, userId);
+
+        int removed = albumRepository.removeImages(albumId, ids);
+        AlbumDTO album = findAlbumDto(albumId, userId);
+        log.info("Removed {} of {} images from album {}", removed, ids.length, albumId);
+        return new MembershipChangeDTO(ids.length, removed, album.imageCount());
+    }
+
+    // Mesmo keyset da listagem de imagens (upload_timestamp DESC, id) e mesmo formato de cursor.
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ImageMetadataDTO> listAlbumImages(UUID albumId, UUID userId, String cursor, int limit) {
+        AlbumDTO album = findAlbumDto(albumId, userId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ImageCursor after = cursor == null || cursor.isBlank() ? null : ImageCursor.decode(cursor);
+
+        // Busca uma linha a mais para saber se existe próxima página
+        List<ImageMetadataDTO> rows = imageMetadataRepository.findDtoSliceByAlbum(albumId, after, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ImageMetadataDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ImageMetadataDTO last = page.get(page.size() - 1);
+            nextCursor = new ImageCursor(last.uploadTimestamp(), last.id()).encode();
+        }
+        return new CursorPageResponse<>(List.copyOf(page), pageSize, nextCursor, hasMore, (long) album.imageCount());
+    }
+
+    // ** Metodos auxiliares **
+
+    private UUID[] distinctIds(List<UUID> imageIds) {
+        UUID[] ids = new LinkedHashSet<>(imageIds).toArray(UUID[]::new);
+        if (ids.length > maxImagesPerCall) {
+            throw new BadRequestException("Máximo de " + maxImagesPerCall + " imagens por requisição.");
+        }
+        return ids;
+    }
+
+    private void checkAlbumOwner(UUID albumId, UUID userId) {
+        if (!albumRepository.existsByIdAndOwnerId(albumId, userId)) {
+            throw albumNotFound(albumId);
+        }
+    }
+
+    private AlbumDTO findAlbumDto(UUID albumId, UUID userId) {
+        return albumRepository.findDtoByIdAndOwnerId(albumId, userId).orElseThrow(() -> albumNotFound(albumId));
+    }
+
+    private ResourceNotFoundException albumNotFound(UUID albumId) {
+        log.warn("Album not found with ID: {}", albumId);
+        return new ResourceNotFoundException("Álbum não encontrado com o ID: " + albumId);
+    }
+}
@@ -1,15 +1,20 @@
 package io.pedrohma07.ImageVault.service;
 
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.pedrohma07.ImageVault.dto.auth.AuthResponseDTO;
 import io.pedrohma07.ImageVault.dto.auth.Login2faRequestDTO;
 import io.pedrohma07.ImageVault.dto.auth.LoginRequestDTO;
 import io.pedrohma07.ImageVault.dto.auth.RefreshTokenResponsetDTO;
+import io.pedrohma07.ImageVault.dto.auth.VerifiedToken;
 import io.pedrohma07.ImageVault.exception.ResourceNotFoundException;
 import io.pedrohma07.ImageVault.exception.TokenRefreshException;
-import io.pedrohma07.ImageVault.model.RefreshToken;
 import io.pedrohma07.ImageVault.model.User;
 import io.pedrohma07.ImageVault.repository.RefreshTokenRepository;
 import io.pedrohma07.ImageVault.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,14 +39,26 @@ public class AuthService {
     private final RefreshTokenRepository refreshTokenRepository;
     private final TwoFactorAuthService twoFactorAuthService;
     private final EncryptionService encryptionService;
+    private final TokenRevocationService tokenRevocationService;
+
+    private Timer bcryptTimer;
+
+    @PostConstruct
+    public void init() {
+        bcryptTimer = Timer.builder("imagevault.auth.bcrypt").register(meterRegistry);
+    }
+    private final MeterRegistry meterRegistry;
 
     @Transactional
     public AuthResponseDTO login(LoginRequestDTO loginRequest) {
         log.debug("Login attempt for email: {}", loginRequest.email());
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.email(),
-                        loginRequest.password()
+        // O tempo de authenticate é dominado pelo bcrypt
+        bcryptTimer.record(() ->
+                authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(
+                                loginRequest.email(),
+                                loginRequest.password()
+                        )
                 )
         );
 
@@ -65,7 +82,7 @@ public class AuthService {
         log.info("Login successful for user: {}", user.getEmail());
         return AuthResponseDTO.withTokens(
                 accessToken,
-                refresh.getToken()
+                refresh
         );
     }
 
@@ -89,34 +106,35 @@ public class AuthService {
         var accessToken = jwtService.generateToken(user);
         var refreshToken = createAndSaveRefreshToken(user);
 
-        return AuthResponseDTO.withTokens(accessToken, refreshToken.getToken());
+        return AuthResponseDTO.withTokens(accessToken, refreshToken);
     }
 
-    private RefreshToken createAndSaveRefreshToken(User user) {
+    // Gera o refresh token e substitui o anterior do usuário em um único upsert.
+    private String createAndSaveRefreshToken(User user) {
         log.debug("Creating and saving new refresh token for user: {}", user.getEmail());
-        refreshTokenRepository.deleteByUser(user);
-
-        var refreshToken = RefreshToken.builder()
-                .id(UUID.randomUUID())
-                .user(user)
-                .token(jwtService.generateRefreshToken(user))
-                .expiryDate(OffsetDateTime.now().plusSeconds(604800L)) // 7 days
-                .build();
-
-        return refreshTokenRepository.save(refreshToken);
+        String refreshToken = jwtService.generateRefreshToken(user);
+        refreshTokenRepository.rotate(user.getId(), jwtService.hashToken(refreshToken),
+                OffsetDateTime.now().plusSeconds(604800L)); // 7 days
+        return refreshToken;
     }
 
     public RefreshTokenResponsetDTO refreshToken(String refreshToken) {
         log.debug("Attempting to refresh access token.");
-        return refreshTokenRepository.findByToken(refreshToken)
+        VerifiedToken verified = verifyRefreshToken(refreshToken);
+        return refreshTokenRepository.findByTokenHash(jwtService.hashToken(refreshToken))
                 .map(token -> {
                     if (token.getExpiryDate().isBefore(OffsetDateTime.now())) {
                         log.warn("Refresh token has expired. Deleting token.");
                         refreshTokenRepository.delete(token);
-                        throw new TokenRefreshException(token.getToken(), "Refresh token expirado. Por favor, faça login novamente.");
+                        throw new TokenRefreshException(refreshToken, "Refresh token expirado. Por favor, faça login novamente.");
                     }
 
                     User user = token.getUser();
+                    if (tokenRevocationService.isRevoked(verified, user.getId())) {
+                        log.warn("Revoked refresh token used for user: {}", user.getEmail());
+                        throw new TokenRefreshException(refreshToken, "Refresh token revogado. Por favor, faça login novamente.");
+                    }
+
                     log.info("Refresh token is valid for user: {}", user.getEmail());
 
                     String newAccessToken = jwtService.generateToken(user);
@@ -129,4 +147,33 @@ public class AuthService {
                     return new TokenRefreshException(refreshToken, "Refresh token não encontrado.");
                 });
     }
+
+    // Logout: um refresh token inválido no corpo não impede a revogação do access token atual.
+    public void logout(VerifiedToken accessToken, UUID userId, String refreshToken) {
+        VerifiedToken refresh = null;
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            try {
+                refresh = jwtService.verify(refreshToken);
+            } catch (JwtException e) {
+                log.debug("Ignoring invalid refresh token on logout.");
+            }
+        }
+        tokenRevocationService.revoke(accessToken, refresh, userId);
+    }
+
+    // Só refresh tokens (com "typ" refresh ou legados de validade longa) renovam o access token
+    private VerifiedToken verifyRefreshToken(String refreshToken) {
+        VerifiedToken verified;
+        try {
+            verified = jwtService.verify(refreshToken);
+        } catch (ExpiredJwtException e) {
+            throw new TokenRefreshException(refreshToken, "Refresh token expirado. Por favor, faça login novamente.");
+        } catch (JwtException e) {
+            throw new TokenRefreshException(refreshToken, "Refresh token inválido.");
+        }
+        if (!verified.isRefreshToken()) {
+            throw new TokenRefreshException(refreshToken, "Refresh token inválido.");
+        }
+        return verified;
+    }
 }
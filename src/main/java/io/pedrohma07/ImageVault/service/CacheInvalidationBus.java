@@ -0,0 +1,187 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.pedrohma07.ImageVault.config.ReadReplicaRoutingDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Barramento de invalidação de caches entre nós usando LISTEN/NOTIFY do Postgres.
+ * Quem escreve publica (tópico, id) com pg_notify na mesma transação da alteração, então o evento só é
+ * entregue se o commit acontecer. Cada nó escuta em uma conexão dedicada (fora do pool) e invalida as
+ * entradas nos caches registrados. Após uma reconexão os caches são esvaziados, já que eventos podem ter se perdido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    private static final String CHANNEL = "imagevault_invalidation";
+
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.invalidation.enabled}")
+    private boolean enabled;
+
+    @Value("${app.cache.invalidation.poll-timeout}")
+    private Duration pollTimeout;
+
+    @Value("${app.cache.invalidation.reconnect-delay}")
+    private Duration reconnectDelay;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    @Value("${spring.datasource.username}")
+    private String datasourceUsername;
+
+    @Value("${spring.datasource.password}")
+    private String datasourcePassword;
+
+    private final Map<String, List<InvalidatableCache>> caches = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private Thread listenerThread;
+    private Timer propagationDelay;
+    private Counter published;
+    private Counter received;
+    private Counter reconnects;
+
+    @PostConstruct
+    public void init() {
+        propagationDelay = Timer.builder("imagevault.cache.invalidation.delay")
+                .description("Tempo entre a publicação do evento e a invalidação local")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        published = Counter.builder("imagevault.cache.invalidation.events").tag("direction", "published").register(meterRegistry);
+        received = Counter.builder("imagevault.cache.invalidation.events").tag("direction", "received").register(meterRegistry);
+        reconnects = Counter.builder("imagevault.cache.invalidation.connections").register(meterRegistry);
+        Gauge.builder("imagevault.cache.invalidation.connected", () -> connected ? 1 : 0).register(meterRegistry);
+
+        if (!enabled) {
+            log.info("Cache invalidation bus disabled. Node-local caches rely on TTL only.");
+            return;
+        }
+
+        running = true;
+        listenerThread = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    public void register(InvalidatableCache cache) {
+        caches.computeIfAbsent(cache.invalidationTopic(), topic -> new CopyOnWriteArrayList<>()).add(cache);
+    }
+
+    // Deve ser chamado dentro da transação da alteração: o Postgres só entrega a notificação após o commit.
+    public void publish(String topic, Object id) {
+        if (!enabled) {
+            return;
+        }
+        String payload = topic + ":" + System.currentTimeMillis() + ":" + id;
+        entityManager.createNativeQuery("SELECT count(*) FROM (SELECT pg_notify(:channel, :payload)) AS n")
+                .setParameter("channel", CHANNEL)
+                .setParameter("payload", payload)
+                .getSingleResult();
+        published.increment();
+    }
+
+    // ** Metodos auxiliares **
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(datasourceUrl, datasourceUsername, datasourcePassword)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                connected = true;
+                reconnects.increment();
+                resync();
+                log.info("Listening for cache invalidation events on channel {}", CHANNEL);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            dispatch(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener lost its connection. Reconnecting in {}.", reconnectDelay, e);
+                }
+            } finally {
+                connected = false;
+            }
+
+            try {
+                Thread.sleep(reconnectDelay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatch(String payload) {
+        String[] parts = payload.split(":", 3);
+        long publishedAt;
+        try {
+            publishedAt = Long.parseLong(parts[1]);
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            log.warn("Ignoring malformed cache invalidation payload: {}", payload);
+            return;
+        }
+
+        received.increment();
+        // Handlers que recarregam do banco (ex.: revogações) leem do primário: a réplica pode ainda não ter o commit
+        ReadReplicaRoutingDataSource.onPrimary(() -> {
+            for (InvalidatableCache cache : caches.getOrDefault(parts[0], List.of())) {
+                cache.evictLocal(parts[2]);
+            }
+        });
+
+        // O atraso depende dos relógios dos nós estarem sincronizados (NTP)
+        long delay = System.currentTimeMillis() - publishedAt;
+        propagationDelay.record(Math.max(0, delay), TimeUnit.MILLISECONDS);
+    }
+
+    // Eventos publicados enquanto o listener estava desconectado (ou antes da primeira conexão) foram perdidos
+    private void resync() {
+        log.info("Cache invalidation listener connected. Clearing registered caches to resync.");
+        ReadReplicaRoutingDataSource.onPrimary(() -> caches.values().forEach(list -> list.forEach(InvalidatableCache::evictAllLocal)));
+    }
+}
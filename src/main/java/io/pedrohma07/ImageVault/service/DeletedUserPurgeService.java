@@ -0,0 +1,142 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.dto.image.ImageCursor;
+import io.pedrohma07.ImageVault.dto.image.ImageKey;
+import io.pedrohma07.ImageVault.model.enums.ImageChangeType;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepositoryCustom.PurgedBatch;
+import io.pedrohma07.ImageVault.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Remove as imagens de usuários excluídos (soft delete em users.deleted_at), que de outra forma ficariam
+ * para sempre no banco e no S3.
+ * Cada lote é uma transação: apaga os metadados com um DELETE por conjunto, enfileira as chaves no outbox
+ * (o drenador as exclui com DeleteObjects, até 1000 por chamada), desconta o uso do usuário e grava os tombstones
+ * no log de mudanças, e tira as imagens do cache de visualização. Como as linhas
+ * apagadas somem, a purga é retomável: uma execução interrompida continua de onde parou na próxima.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeletedUserPurgeService {
+
+    private final UserRepository userRepository;
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final StorageUsageService storageUsageService;
+    private final ImageChangeLogService imageChangeLogService;
+    private final ImageViewCache imageViewCache;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.purge.deleted-users.grace-period}")
+    private Duration gracePeriod;
+
+    @Value("${app.purge.deleted-users.users-per-run}")
+    private int usersPerRun;
+
+    @Value("${app.purge.deleted-users.batch-size}")
+    private int batchSize;
+
+    @Value("${app.purge.deleted-users.max-batches-per-run}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.purge.deleted-users.pause-between-batches}")
+    private Duration pauseBetweenBatches;
+
+    private Counter purgedImages;
+    private Counter reclaimedBytes;
+    private Counter purgedUsers;
+
+    @PostConstruct
+    public void init() {
+        purgedImages = Counter.builder("imagevault.purge.images").register(meterRegistry);
+        reclaimedBytes = Counter.builder("imagevault.purge.reclaimed").baseUnit("bytes").register(meterRegistry);
+        purgedUsers = Counter.builder("imagevault.purge.users").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.deleted-users.interval}")
+    public void purge() {
+        List<UUID> users = userRepository.findPendingImagePurge(OffsetDateTime.now().minus(gracePeriod), usersPerRun);
+        int batchesLeft = maxBatchesPerRun;
+
+        for (UUID userId : users) {
+            if (batchesLeft <= 0) {
+                log.info("Deleted user purge reached {} batches in this run. Continuing in the next run.", maxBatchesPerRun);
+                return;
+            }
+            batchesLeft = purgeUser(userId, batchesLeft);
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    // Retorna quantos lotes ainda cabem nesta execução
+    private int purgeUser(UUID userId, int batchesLeft) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        ImageCursor after = null;
+        long images = 0;
+        long bytes = 0;
+
+        while (batchesLeft > 0) {
+            ImageCursor cursor = after;
+            PurgedBatch batch = tx.execute(status -> {
+                PurgedBatch purged = imageMetadataRepository.purgeOwnerBatch(userId, cursor, batchSize);
+                if (purged != null) {
+                    // Mesma ordem de locks do ImageService: uso antes da sequência do log de mudanças
+                    storageUsageService.release(userId, purged.bytes(), purged.images());
+                    imageChangeLogService.record(userId, ImageChangeType.DELETED, purged.imageKeys());
+                    imageViewCache.evict(purged.imageKeys().stream().map(ImageKey::id).toList());
+                }
+                return purged;
+            });
+            if (batch == null) {
+                break;
+            }
+
+            batchesLeft--;
+            images += batch.images();
+            bytes += batch.bytes();
+            purgedImages.increment(batch.images());
+            reclaimedBytes.increment(batch.bytes());
+            after = batch.last();
+
+            if (!pause()) {
+                return 0;
+            }
+        }
+
+        if (batchesLeft > 0 && Boolean.TRUE.equals(tx.execute(status -> userRepository.markImagesPurged(userId) > 0))) {
+            purgedUsers.increment();
+            log.info("Purged deleted user {}: {} images, {} bytes reclaimed in this run", userId, images, bytes);
+        } else if (images > 0) {
+            log.info("Partially purged deleted user {}: {} images, {} bytes reclaimed so far", userId, images, bytes);
+        }
+        return batchesLeft;
+    }
+
+    // Pausa entre lotes; interrompida (desligamento), encerra a execução
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenBatches.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Leituras "hedged" para cortar a cauda de latência do storage.
+ * Se a primeira requisição não responder dentro do percentil configurado da latência recente,
+ * uma segunda é disparada e vence a que terminar primeiro. Hedges e retentativas consomem um
+ * orçamento global (proporcional ao tráfego), evitando amplificar a carga durante uma indisponibilidade.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HedgedReadService {
+
+    private static final int LATENCY_WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final long TOKEN = 1000;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.hedging.enabled}")
+    private boolean enabled;
+
+    @Value("${app.storage.hedging.percentile}")
+    private double percentile;
+
+    @Value("${app.storage.hedging.min-delay-ms}")
+    private long minDelayMs;
+
+    @Value("${app.storage.hedging.max-delay-ms}")
+    private long maxDelayMs;
+
+    @Value("${app.storage.hedging.budget-ratio}")
+    private double budgetRatio;
+
+    @Value("${app.storage.hedging.max-threads}")
+    private int maxThreads;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private final AtomicInteger samples = new AtomicInteger();
+    private final AtomicLong budget = new AtomicLong();
+    private volatile long hedgeDelayMs;
+
+    private ThreadPoolExecutor executor;
+    private Timer readTimer;
+    private Counter hedgesIssued;
+    private Counter hedgesWon;
+    private Counter retries;
+    private Counter budgetExhausted;
+
+    @PostConstruct
+    public void init() {
+        hedgeDelayMs = maxDelayMs;
+        budget.set(10 * TOKEN);
+        executor = new ThreadPoolExecutor(0, maxThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "storage-read");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        readTimer = Timer.builder("imagevault.storage.read.latency").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        hedgesIssued = Counter.builder("imagevault.storage.read.hedges").tag("outcome", "issued").register(meterRegistry);
+        hedgesWon = Counter.builder("imagevault.storage.read.hedges").tag("outcome", "won").register(meterRegistry);
+        retries = Counter.builder("imagevault.storage.read.retries").register(meterRegistry);
+        budgetExhausted = Counter.builder("imagevault.storage.read.hedges").tag("outcome", "budget_exhausted").register(meterRegistry);
+        Gauge.builder("imagevault.storage.read.hedge.delay", () -> hedgeDelayMs).baseUnit("milliseconds").register(meterRegistry);
+        Gauge.builder("imagevault.storage.read.hedge.win.ratio", this, s -> s.hedgesIssued.count() == 0 ? 0.0
+                : s.hedgesWon.count() / s.hedgesIssued.count()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T> T read(Supplier<T> request) {
+        if (!enabled) {
+            return timed(request).get();
+        }
+
+        // Cada requisição primária deposita uma fração de token; um hedge/retry custa um token inteiro
+        budget.getAndUpdate(current -> Math.min(current + (long) (TOKEN * budgetRatio), 100 * TOKEN));
+
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        long primaryStart = System.nanoTime();
+        Future<T> primary;
+        try {
+            primary = completion.submit(() -> timed(request).get());
+        } catch (RejectedExecutionException e) {
+            log.debug("Storage read pool saturated. Reading inline without hedging.");
+            return timed(request).get();
+        }
+
+        Future<T> secondary = null;
+        boolean hedged = false;
+        int pending;
+        try {
+            Future<T> done = completion.poll(hedgeDelayMs, TimeUnit.MILLISECONDS);
+            if (done == null) {
+                secondary = submitIfBudget(completion, request, false);
+                hedged = secondary != null;
+                pending = hedged ? 2 : 1;
+            } else {
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    secondary = submitIfBudget(completion, request, true);
+                    if (secondary == null) {
+                        throw unwrap(e);
+                    }
+                    pending = 1;
+                }
+            }
+
+            ExecutionException lastFailure = null;
+            while (pending-- > 0) {
+                Future<T> finished = completion.take();
+                try {
+                    T result = finished.get();
+                    if (hedged && finished == secondary) {
+                        hedgesWon.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastFailure = e;
+                }
+            }
+            throw unwrap(lastFailure);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Leitura do storage interrompida.", e);
+        } finally {
+            // Primária lenta cancelada: o tempo até aqui entra na janela como amostra censurada (a latência real é
+            // no mínimo isso). Sem ela, só as requisições que terminam seriam contadas e o percentil cairia a cada hedge.
+            if (!primary.isDone()) {
+                recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - primaryStart));
+            }
+            // Cancela a requisição perdedora; o cliente S3 síncrono aborta ao ser interrompido
+            primary.cancel(true);
+            if (secondary != null) {
+                secondary.cancel(true);
+            }
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    private <T> Future<T> submitIfBudget(ExecutorCompletionService<T> completion, Supplier<T> request, boolean retry) {
+        long previous = budget.getAndUpdate(current -> current >= TOKEN ? current - TOKEN : current);
+        if (previous < TOKEN) {
+            budgetExhausted.increment();
+            return null;
+        }
+
+        try {
+            Future<T> future = completion.submit(() -> timed(request).get());
+            (retry ? retries : hedgesIssued).increment();
+            return future;
+        } catch (RejectedExecutionException e) {
+            budget.addAndGet(TOKEN);
+            return null;
+        }
+    }
+
+    private <T> Supplier<T> timed(Supplier<T> request) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = request.get();
+            long elapsed = System.nanoTime() - start;
+            // Requisição cancelada que terminou mesmo assim: já foi contada como amostra censurada em read()
+            if (!Thread.currentThread().isInterrupted()) {
+                readTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                recordLatency(TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+            return result;
+        };
+    }
+
+    private void recordLatency(long millis) {
+        int sample = samples.getAndIncrement() & Integer.MAX_VALUE;
+        latencies[Math.floorMod(sample, LATENCY_WINDOW)] = millis;
+        if (sample % RECOMPUTE_EVERY == 0 && sample >= RECOMPUTE_EVERY) {
+            long[] window = Arrays.copyOf(latencies, Math.min(sample + 1, LATENCY_WINDOW));
+            Arrays.sort(window);
+            long threshold = window[(int) Math.min(window.length - 1, Math.floor(window.length * percentile))];
+            hedgeDelayMs = Math.max(minDelayMs, Math.min(maxDelayMs, threshold));
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RuntimeException("Falha ao ler do storage.", cause);
+    }
+}
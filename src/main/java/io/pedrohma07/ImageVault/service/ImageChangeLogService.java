@@ -0,0 +1,127 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.dto.image.ImageChangeDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageChangesDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageKey;
+import io.pedrohma07.ImageVault.exception.BadRequestException;
+import io.pedrohma07.ImageVault.model.ImageChangeSequence;
+import io.pedrohma07.ImageVault.model.enums.ImageChangeType;
+import io.pedrohma07.ImageVault.repository.ImageChangeSequenceRepository;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Log de mudanças por usuário para a sincronização incremental dos clientes (GET /api/images/changes).
+ * Cada mudança recebe o próximo número da sequência do usuário; o cliente guarda o último número visto e
+ * pede só o que veio depois, então o tráfego acompanha o volume de mudanças e não o tamanho da biblioteca.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageChangeLogService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final ImageChangeSequenceRepository imageChangeSequenceRepository;
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.images.changes.tombstone-retention}")
+    private Duration tombstoneRetention;
+
+    @Value("${app.images.changes.compaction.batch-size}")
+    private int compactionBatchSize;
+
+    private Counter resyncs;
+    private Counter compactedTombstones;
+
+    @PostConstruct
+    public void init() {
+        resyncs = Counter.builder("imagevault.images.changes.resyncs").register(meterRegistry);
+        compactedTombstones = Counter.builder("imagevault.images.changes.compacted").register(meterRegistry);
+    }
+
+    // Na mesma transação da escrita: a mudança só existe se a escrita for confirmada. Trava a sequência do
+    // usuário até o commit, então deve vir perto do fim da transação.
+    // Ordem de locks: a linha de user_usage (StorageUsageService.reserve/release) sempre antes da sequência.
+    // Quem altera o uso chama record depois de reserve/release; a ordem inversa em outro caminho causa deadlock.
+    // upload_timestamp deve ser o valor gravado na imagem (ver ImageMetadata.onPrePersist), ou o JOIN de
+    // findChangesSince não encontra a linha.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UUID userId, ImageChangeType type, Collection<ImageKey> images) {
+        Map<UUID, OffsetDateTime> distinct = new LinkedHashMap<>();
+        images.forEach(image -> distinct.putIfAbsent(image.id(), image.uploadTimestamp()));
+        if (distinct.isEmpty()) {
+            return;
+        }
+        UUID[] ids = distinct.keySet().toArray(UUID[]::new);
+        String[] uploadedAts = distinct.values().stream().map(OffsetDateTime::toString).toArray(String[]::new);
+        imageChangeSequenceRepository.recordChanges(userId, ids, uploadedAts, type.name());
+    }
+
+    @Transactional(readOnly = true)
+    public ImageChangesDTO getChanges(UUID userId, long since, int limit) {
+        if (since < 0) {
+            throw new BadRequestException("O parâmetro since não pode ser negativo.");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // As mudanças são lidas antes da sequência: uma compactação entre as duas leituras aparece em
+        // compacted_seq e força a sincronização completa em vez de esconder tombstones removidos.
+        List<ImageChangeDTO> rows = imageMetadataRepository.findChangesSince(userId, since, pageSize + 1);
+        ImageChangeSequence sequence = imageChangeSequenceRepository.findById(userId).orElse(null);
+
+        if (sequence != null && since < sequence.getCompactedSeq()) {
+            resyncs.increment();
+            log.info("User {} requested changes since {}, before compaction point {}. Full resync required.",
+                    userId, since, sequence.getCompactedSeq());
+            return new ImageChangesDTO(List.of(), sequence.getLastSeq(), false, true);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ImageChangeDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        long nextSince = page.isEmpty() ? since : page.get(page.size() - 1).seq();
+        return new ImageChangesDTO(List.copyOf(page), nextSince, hasMore, false);
+    }
+
+    // Remove tombstones mais antigos que a retenção, em lotes de uma transação cada.
+    @Scheduled(fixedDelayString = "${app.images.changes.compaction.interval}")
+    public void compactTombstones() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        OffsetDateTime before = OffsetDateTime.now().minus(tombstoneRetention);
+        long total = 0;
+
+        while (true) {
+            Long removed = tx.execute(status -> imageChangeSequenceRepository.compactTombstones(before, compactionBatchSize));
+            total += removed;
+            if (removed < compactionBatchSize) {
+                break;
+            }
+        }
+
+        if (total > 0) {
+            compactedTombstones.increment(total);
+            log.info("Compacted {} image change tombstones older than {}", total, before);
+        }
+    }
+}
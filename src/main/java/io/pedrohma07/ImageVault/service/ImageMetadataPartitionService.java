@@ -0,0 +1,76 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantém as partições mensais de image_metadata (V17): cria com antecedência as dos próximos meses, para que
+ * uploads nunca caiam na partição default, e expõe o progresso do backfill da migração online.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageMetadataPartitionService {
+
+    private static final long MAINTENANCE_LOCK_KEY = 0x1A6E_7A03L;
+
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.partitioning.months-ahead}")
+    private int monthsAhead;
+
+    private final AtomicLong backfillCopied = new AtomicLong();
+    private final AtomicLong defaultPartitionRows = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("imagevault.partitioning.backfill.copied", backfillCopied, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("imagevault.partitioning.default.rows", defaultPartitionRows, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.partitioning.maintenance-cron}")
+    public void createUpcomingPartitions() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            // Serializa entre os nós; a função é idempotente, mas CREATE/ATTACH concorrentes falhariam
+            entityManager.createNativeQuery("SELECT count(*) FROM (SELECT pg_advisory_xact_lock(:key)) AS l")
+                    .setParameter("key", MAINTENANCE_LOCK_KEY)
+                    .getSingleResult();
+
+            Number created = (Number) entityManager
+                    .createNativeQuery("SELECT dev.create_image_metadata_partitions(now(), :monthsAhead)")
+                    .setParameter("monthsAhead", monthsAhead)
+                    .getSingleResult();
+            if (created.intValue() > 0) {
+                log.info("Created {} image_metadata partitions", created);
+            }
+
+            Number copied = (Number) entityManager
+                    .createNativeQuery("SELECT copied FROM dev.image_metadata_backfill_state WHERE id = 1")
+                    .getSingleResult();
+            backfillCopied.set(copied.longValue());
+
+            // Linhas na default indicam meses sem partição (ex.: timestamps fora do intervalo mantido)
+            Number inDefault = (Number) entityManager
+                    .createNativeQuery("SELECT count(*) FROM dev.image_metadata_default")
+                    .getSingleResult();
+            defaultPartitionRows.set(inDefault.longValue());
+            if (inDefault.longValue() > 0) {
+                log.warn("{} image_metadata rows are in the default partition", inDefault);
+            }
+        });
+    }
+}
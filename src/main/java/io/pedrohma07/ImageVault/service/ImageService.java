@@ -1,20 +1,41 @@
 package io.pedrohma07.ImageVault.service;
 
+import io.pedrohma07.ImageVault.dto.CursorPageResponse;
+import io.pedrohma07.ImageVault.dto.image.BulkUpdateImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.BulkUpdateItemResultDTO;
+import io.pedrohma07.ImageVault.dto.image.BulkUpdateResultDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageCursor;
+import io.pedrohma07.ImageVault.dto.image.ImageKey;
+import io.pedrohma07.ImageVault.dto.image.ImageListFilter;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataChangeDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageSearchCursor;
 import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.ImageViewSnapshot;
+import io.pedrohma07.ImageVault.dto.image.ThumbnailViewDTO;
 import io.pedrohma07.ImageVault.dto.image.UpdateImageMetadataDTO;
+import io.pedrohma07.ImageVault.exception.BadRequestException;
+import io.pedrohma07.ImageVault.exception.QuotaExceededException;
 import io.pedrohma07.ImageVault.exception.ResourceNotFoundException;
 import io.pedrohma07.ImageVault.mapper.ImageMapper;
 import io.pedrohma07.ImageVault.model.ImageMetadata;
 import io.pedrohma07.ImageVault.model.User;
+import io.pedrohma07.ImageVault.model.enums.BulkUpdateStatus;
+import io.pedrohma07.ImageVault.model.enums.ImageChangeType;
+import io.pedrohma07.ImageVault.model.enums.ImageSortField;
 import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepositoryCustom;
 import io.pedrohma07.ImageVault.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.imgscalr.Scalr;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -22,8 +43,17 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -32,15 +62,31 @@ import java.util.UUID;
 public class ImageService {
 
     private final StorageService storageService;
+    private final StorageDeletionService storageDeletionService;
+    private final ThumbnailPackService thumbnailPackService;
     private final ImageMetadataRepository imageMetadataRepository;
     private final UserRepository userRepository;
     private final ImageMapper imageMapper;
+    private final ImageViewCache imageViewCache;
+    private final StorageUsageService storageUsageService;
+    private final ImageChangeLogService imageChangeLogService;
 
     private static final List<String> VALID_EXTENSIONS = List.of(".jpg", ".jpeg", ".png", ".webp");
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final int MAX_SEARCH_LENGTH = 100;
 
-    public ImageMetadataDTO uploadImage(MultipartFile file, String userEmail) {
-        log.debug("Starting image upload process for user: {}", userEmail);
-        User owner = findUserByEmail(userEmail);
+    @Value("${app.images.bulk-update.max-items}")
+    private int bulkUpdateMaxItems;
+
+    @Value("${app.images.search.max-candidates}")
+    private int searchMaxCandidates;
+
+    public ImageMetadataDTO uploadImage(MultipartFile file, UUID userId) {
+        log.debug("Starting image upload process for user: {}", userId);
+        // Referência sem consulta: o id vem do principal já autenticado
+        User owner = userRepository.getReferenceById(userId);
+        storageUsageService.checkAvailable(userId, file.getSize());
 
         // Salva arquivo original
         ImageMetadata metadata = storageService.uploadFile(file, owner);
@@ -67,21 +113,36 @@ public class ImageService {
             throw new RuntimeException("Falha ao gerar thumbnail.");
         }
 
+        // Reserva atômica da cota no fim, para segurar o lock da linha de uso só até o commit.
+        // Se outro upload concorrente consumiu o espaço, os objetos já enviados vão para o outbox de remoção.
+        try {
+            storageUsageService.reserve(userId, metadata.getSize());
+        } catch (QuotaExceededException e) {
+            storageDeletionService.enqueueInNewTransaction(
+                    Arrays.asList(metadata.getStorageKey(), metadata.getThumbnailStorageKey()));
+            throw e;
+        }
+
+        // Depois da reserva: ordem de locks user_usage -> image_change_sequences (ver ImageChangeLogService.record)
+        imageChangeLogService.record(userId, ImageChangeType.CREATED,
+                List.of(new ImageKey(metadata.getId(), metadata.getUploadTimestamp())));
+
         log.info("Image upload process completed successfully for image ID: {}", metadata.getId());
         return imageMapper.toImageMetadataDTO(metadata);
     }
 
-    public String getImageViewUrl(UUID imageId, String userEmail, boolean isThumbnail) {
-        log.debug("Requesting view URL for image ID: {} by user: {}. Is thumbnail: {}", imageId, userEmail, isThumbnail);
-        ImageMetadata metadata = findImageMetadataById(imageId);
-        User currentUser = findUserByEmail(userEmail);
+    // Caminho quente: os metadados vêm do ImageViewCache, então não abre transação nem conexão com o banco.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String getImageViewUrl(UUID imageId, UUID userId, boolean isThumbnail) {
+        log.debug("Requesting view URL for image ID: {} by user: {}. Is thumbnail: {}", imageId, userId, isThumbnail);
+        ImageViewSnapshot metadata = findViewSnapshot(imageId);
 
-        if (!canViewImage(metadata, currentUser)) {
-            log.warn("Access denied for user {} attempting to view image ID {}", userEmail, imageId);
+        if (!canViewImage(metadata, userId)) {
+            log.warn("Access denied for user {} attempting to view image ID {}", userId, imageId);
             throw new AccessDeniedException("Você não tem permissão para acessar esta imagem.");
         }
 
-        String keyToUse = isThumbnail ? metadata.getThumbnailStorageKey() : metadata.getStorageKey();
+        String keyToUse = isThumbnail ? metadata.thumbnailStorageKey() : metadata.storageKey();
         if (keyToUse == null) {
             log.warn("Image resource key is null for image ID: {}. Thumbnail request: {}", imageId, isThumbnail);
             throw new ResourceNotFoundException("Recurso de imagem não disponível no momento.");
@@ -91,79 +152,276 @@ public class ImageService {
         return storageService.generatePresignedUrl(keyToUse);
     }
 
-    public Page<ImageMetadataDTO> listUserImages(String userEmail, Pageable pageable) {
-        log.debug("Fetching image list for user: {} with pageable: {}", userEmail, pageable);
-        User owner = findUserByEmail(userEmail);
+    // Thumbnails avulsos são servidos via URL pré-assinada; os empacotados são lidos com Range e servidos pela API.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ThumbnailViewDTO getThumbnailView(UUID imageId, UUID userId) {
+        log.debug("Requesting thumbnail for image ID: {} by user: {}", imageId, userId);
+        ImageViewSnapshot metadata = findViewSnapshot(imageId);
+
+        if (!canViewImage(metadata, userId)) {
+            log.warn("Access denied for user {} attempting to view thumbnail of image ID {}", userId, imageId);
+            throw new AccessDeniedException("Você não tem permissão para acessar esta imagem.");
+        }
+
+        if (metadata.thumbnailStorageKey() != null) {
+            return ThumbnailViewDTO.redirect(storageService.generatePresignedUrl(metadata.thumbnailStorageKey()));
+        }
 
-        Page<ImageMetadataDTO> images = imageMetadataRepository.findByOwner(owner, pageable)
-                .map(imageMapper::toImageMetadataDTO);
+        if (!metadata.isPacked()) {
+            log.warn("Thumbnail not available for image ID: {}", imageId);
+            throw new ResourceNotFoundException("Recurso de imagem não disponível no momento.");
+        }
 
-        log.info("Found {} images on page {} for user {}", images.getNumberOfElements(), pageable.getPageNumber(), userEmail);
-        return images;
+        byte[] thumbnail = thumbnailPackService.readPackedThumbnail(
+                metadata.packStorageKey(), metadata.packOffset(), metadata.packLength());
+        return ThumbnailViewDTO.content(thumbnail, "image/" + extractFormat(metadata.contentType()));
     }
 
-    public ImageMetadataDTO findMetadataById(UUID imageId, String userEmail) {
-        log.debug("Fetching metadata for image ID: {} by user: {}", imageId, userEmail);
-        User owner = findUserByEmail(userEmail);
-        ImageMetadata metadata = findImageMetadataById(imageId);
+    @Transactional(readOnly = true)
+    public Page<ImageMetadataDTO> listUserImages(UUID userId, ImageListFilter filter, ImageSortField sortField,
+                                                 Sort.Direction direction, int page, int limit) {
+        log.debug("Fetching image list for user: {} with filter: {}, sort: {} {}", userId, filter, sortField, direction);
+        validateFilter(filter);
 
-        checkImageOwner(metadata, owner);
+        // Desempate por id na direção que permite percorrer o índice composto sem ordenação extra
+        Sort.Direction idDirection = (direction == Sort.Direction.DESC) == sortField.isIndexedDescending()
+                ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(new Sort.Order(direction, sortField.getProperty()), new Sort.Order(idDirection, "id"));
+        Pageable pageable = PageRequest.of(Math.max(page - 1, 0), Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), sort);
 
-        log.info("Successfully fetched metadata for image ID: {}", imageId);
-        return imageMapper.toImageMetadataDTO(metadata);
+        Page<ImageMetadataDTO> images = imageMetadataRepository.findDtoPage(userId, filter, pageable);
+
+        log.info("Found {} images on page {} for user {}", images.getNumberOfElements(), pageable.getPageNumber(), userId);
+        return images;
     }
 
-    public ImageMetadataDTO updateImageMetadata(UUID imageId, String userEmail, UpdateImageMetadataDTO updateDTO) {
-        log.debug("Attempting to update metadata for image ID: {} by user: {}", imageId, userEmail);
-        User currentUser = findUserByEmail(userEmail);
-        ImageMetadata metadata = findImageMetadataById(imageId);
+    // Listagem por cursor: custo constante por página, independente da profundidade. O total (COUNT) é opcional.
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ImageMetadataDTO> listUserImagesByCursor(UUID userId, ImageListFilter filter, String cursor,
+                                                                       int limit, boolean includeTotal) {
+        log.debug("Fetching image list for user: {} with filter: {}, cursor: {}", userId, filter, cursor);
+        validateFilter(filter);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ImageCursor after = cursor == null || cursor.isBlank() ? null : ImageCursor.decode(cursor);
+
+        // Busca uma linha a mais para saber se existe próxima página
+        List<ImageMetadataDTO> rows = imageMetadataRepository.findDtoSlice(userId, filter, after, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ImageMetadataDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ImageMetadataDTO last = page.get(page.size() - 1);
+            nextCursor = new ImageCursor(last.uploadTimestamp(), last.id()).encode();
+        }
+        Long total = includeTotal ? imageMetadataRepository.countDto(userId, filter) : null;
 
-        checkImageOwner(metadata, currentUser);
+        log.info("Found {} images for user {} (hasMore: {})", page.size(), userId, hasMore);
+        return new CursorPageResponse<>(List.copyOf(page), pageSize, nextCursor, hasMore, total);
+    }
 
-        String newFileName = updateDTO.fileName();
-        String finalNewFileName = newFileName;
+    // Busca por nome com ranking por relevância e paginação por cursor (relevância, id).
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ImageMetadataDTO> searchUserImages(UUID userId, String query, String cursor, int limit) {
+        String normalizedQuery = query == null ? "" : query.trim();
+        log.debug("Searching images of user: {} for: '{}', cursor: {}", userId, normalizedQuery, cursor);
+        if (normalizedQuery.length() < MIN_SEARCH_LENGTH || normalizedQuery.length() > MAX_SEARCH_LENGTH) {
+            throw new BadRequestException("A busca deve ter entre " + MIN_SEARCH_LENGTH + " e " + MAX_SEARCH_LENGTH + " caracteres.");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ImageSearchCursor after = cursor == null || cursor.isBlank() ? null : ImageSearchCursor.decode(cursor);
+
+        // Busca uma linha a mais para saber se existe próxima página
+        List<ImageMetadataRepositoryCustom.ScoredImage> rows =
+                imageMetadataRepository.searchByFileName(userId, normalizedQuery, after, searchMaxCandidates, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ImageMetadataRepositoryCustom.ScoredImage> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ImageMetadataRepositoryCustom.ScoredImage last = page.get(page.size() - 1);
+            nextCursor = new ImageSearchCursor(last.score(), last.image().id()).encode();
+        }
 
-        boolean hasExtension = VALID_EXTENSIONS.stream()
-                .anyMatch(ext -> finalNewFileName.toLowerCase().endsWith(ext));
+        log.info("Search returned {} images for user {} (hasMore: {})", page.size(), userId, hasMore);
+        return new CursorPageResponse<>(page.stream().map(ImageMetadataRepositoryCustom.ScoredImage::image).toList(),
+                pageSize, nextCursor, hasMore, null);
+    }
 
-        if (!hasExtension) {
-            newFileName += mapContentTypeToExtension(metadata.getContentType());
-        }
+    @Transactional(readOnly = true)
+    public ImageMetadataDTO findMetadataById(UUID imageId, UUID userId) {
+        log.debug("Fetching metadata for image ID: {} by user: {}", imageId, userId);
+        ImageMetadataDTO metadata = imageMetadataRepository.findDtoByIdAndOwnerId(imageId, userId)
+                .orElseThrow(() -> {
+                    log.warn("Image metadata not found with ID: {} for user: {}", imageId, userId);
+                    return new ResourceNotFoundException("Imagem não encontrada com o ID: " + imageId);
+                });
+
+        log.info("Successfully fetched metadata for image ID: {}", imageId);
+        return metadata;
+    }
+
+    public ImageMetadataDTO updateImageMetadata(UUID imageId, UUID userId, UpdateImageMetadataDTO updateDTO) {
+        log.debug("Attempting to update metadata for image ID: {} by user: {}", imageId, userId);
+        ImageMetadata metadata = findImageMetadataById(imageId);
+
+        checkImageOwner(metadata, userId);
 
         metadata.setVisibility(updateDTO.visibility());
-        metadata.setFileName(newFileName);
+        metadata.setFileName(normalizeFileName(updateDTO.fileName(), metadata.getContentType()));
 
         ImageMetadata updatedMetadata = imageMetadataRepository.save(metadata);
+        imageChangeLogService.record(userId, ImageChangeType.UPDATED,
+                List.of(new ImageKey(imageId, updatedMetadata.getUploadTimestamp())));
+        imageViewCache.evict(imageId);
         log.info("Successfully updated metadata for image ID: {}", imageId);
 
         return imageMapper.toImageMetadataDTO(updatedMetadata);
     }
 
-    public void deleteImage(UUID imageId, String userEmail) {
-        log.debug("Deletion requested for image ID: {} by user: {}", imageId, userEmail);
-        ImageMetadata metadata = findImageMetadataById(imageId);
-        User currentUser = findUserByEmail(userEmail);
+    /**
+     * Atualiza várias imagens do usuário numa única transação.
+     * A visibilidade uniforme ("ids" + "visibility") vira um único UPDATE set-based; as alterações individuais
+     * ("items") são carregadas numa só consulta e gravadas no flush, agrupadas em lotes JDBC pelo Hibernate.
+     */
+    public BulkUpdateResultDTO bulkUpdateImageMetadata(UUID userId, BulkUpdateImageMetadataDTO bulkDTO) {
+        List<UUID> ids = bulkDTO.ids() == null ? List.of() : bulkDTO.ids();
+        List<ImageMetadataChangeDTO> items = bulkDTO.items() == null ? List.of() : bulkDTO.items();
+        log.debug("Bulk metadata update requested by user: {} ({} uniform, {} individual)", userId, ids.size(), items.size());
+        validateBulkUpdate(bulkDTO, ids, items);
+
+        List<BulkUpdateItemResultDTO> results = new ArrayList<>(ids.size() + items.size());
+        // Chave de partição das imagens alteradas, para o log de mudanças
+        Map<UUID, OffsetDateTime> uploadTimestamps = new HashMap<>();
+
+        if (!ids.isEmpty()) {
+            imageMetadataRepository.updateVisibility(userId, ids.toArray(UUID[]::new), bulkDTO.visibility().name())
+                    .forEach(key -> uploadTimestamps.put(key.id(), key.uploadTimestamp()));
+            for (UUID id : ids) {
+                if (uploadTimestamps.containsKey(id)) {
+                    results.add(BulkUpdateItemResultDTO.updated(id));
+                } else {
+                    results.add(BulkUpdateItemResultDTO.notFound(id));
+                }
+            }
+        }
 
-        checkImageOwner(metadata, currentUser);
+        if (!items.isEmpty()) {
+            // Carregadas depois do UPDATE em lote, já com o estado atualizado
+            Map<UUID, ImageMetadata> images = imageMetadataRepository
+                    .findByOwnerIdAndIdIn(userId, items.stream().map(ImageMetadataChangeDTO::id).toList())
+                    .stream()
+                    .collect(Collectors.toMap(ImageMetadata::getId, Function.identity()));
+
+            for (ImageMetadataChangeDTO item : items) {
+                ImageMetadata metadata = images.get(item.id());
+                if (metadata == null) {
+                    results.add(BulkUpdateItemResultDTO.notFound(item.id()));
+                } else if (item.visibility() == null && item.fileName() == null) {
+                    results.add(BulkUpdateItemResultDTO.invalid(item.id(), "Nenhuma alteração informada."));
+                } else if (item.fileName() != null && item.fileName().isBlank()) {
+                    results.add(BulkUpdateItemResultDTO.invalid(item.id(), "O nome do arquivo não pode estar em branco."));
+                } else {
+                    if (item.visibility() != null) {
+                        metadata.setVisibility(item.visibility());
+                    }
+                    if (item.fileName() != null) {
+                        metadata.setFileName(normalizeFileName(item.fileName(), metadata.getContentType()));
+                    }
+                    uploadTimestamps.put(item.id(), metadata.getUploadTimestamp());
+                    results.add(BulkUpdateItemResultDTO.updated(item.id()));
+                }
+            }
+            // Dirty checking: os UPDATEs saem em lotes de hibernate.jdbc.batch_size
+            imageMetadataRepository.flush();
+        }
 
-        storageService.deleteFile(metadata.getStorageKey());
-        log.info("Deleted main storage object for image ID: {}", imageId);
+        List<UUID> changedIds = results.stream()
+                .filter(r -> r.status() == BulkUpdateStatus.UPDATED)
+                .map(BulkUpdateItemResultDTO::id)
+                .toList();
+        // Depois do flush: o NOTIFY da invalidação dispararia o auto-flush do Hibernate a cada imagem
+        imageViewCache.evict(changedIds);
+        imageChangeLogService.record(userId, ImageChangeType.UPDATED,
+                changedIds.stream().map(id -> new ImageKey(id, uploadTimestamps.get(id))).toList());
+
+        int updated = changedIds.size();
+        log.info("Bulk metadata update for user {}: {} updated, {} failed", userId, updated, results.size() - updated);
+        return new BulkUpdateResultDTO(updated, results.size() - updated, results);
+    }
 
-        if (metadata.getThumbnailStorageKey() != null) {
-            storageService.deleteFile(metadata.getThumbnailStorageKey());
-            log.info("Deleted thumbnail storage object for image ID: {}", imageId);
-        }
+    public void deleteImage(UUID imageId, UUID userId) {
+        log.debug("Deletion requested for image ID: {} by user: {}", imageId, userId);
+        ImageMetadata metadata = findImageMetadataById(imageId);
+
+        checkImageOwner(metadata, userId);
+
+        // Os objetos são removidos do S3 pelo drenador do outbox, após o commit desta transação
+        storageDeletionService.enqueue(Arrays.asList(metadata.getStorageKey(), metadata.getThumbnailStorageKey()));
 
         imageMetadataRepository.delete(metadata);
-        log.info("Successfully deleted image metadata and files for ID: {}", imageId);
+        storageUsageService.release(userId, metadata.getSize(), 1);
+        imageChangeLogService.record(userId, ImageChangeType.DELETED,
+                List.of(new ImageKey(imageId, metadata.getUploadTimestamp())));
+        imageViewCache.evict(imageId);
+        log.info("Successfully deleted image metadata and enqueued files for deletion for ID: {}", imageId);
     }
 
 
     // ** Metodos auxiliares **
 
-    private boolean canViewImage(ImageMetadata metadata, User user) {
-        return metadata.getVisibility() == io.pedrohma07.ImageVault.model.enums.ImageVisibility.PUBLIC
-                || metadata.getOwner().equals(user);
+    private void validateFilter(ImageListFilter filter) {
+        if (filter.minSize() != null && filter.maxSize() != null && filter.minSize() > filter.maxSize()) {
+            throw new BadRequestException("minSize não pode ser maior que maxSize.");
+        }
+        if (filter.uploadedFrom() != null && filter.uploadedTo() != null && filter.uploadedFrom().isAfter(filter.uploadedTo())) {
+            throw new BadRequestException("uploadedFrom não pode ser posterior a uploadedTo.");
+        }
+    }
+
+    private void validateBulkUpdate(BulkUpdateImageMetadataDTO bulkDTO, List<UUID> ids, List<ImageMetadataChangeDTO> items) {
+        if (ids.isEmpty() && items.isEmpty()) {
+            throw new BadRequestException("Informe \"ids\" ou \"items\".");
+        }
+        if (!ids.isEmpty() && bulkDTO.visibility() == null) {
+            throw new BadRequestException("A visibilidade é obrigatória quando \"ids\" é informado.");
+        }
+        if (ids.size() + items.size() > bulkUpdateMaxItems) {
+            throw new BadRequestException("Máximo de " + bulkUpdateMaxItems + " imagens por requisição.");
+        }
+
+        // Cada imagem aparece uma única vez, para que o resultado por item seja inequívoco
+        Set<UUID> seen = new HashSet<>();
+        for (UUID id : ids) {
+            if (!seen.add(id)) {
+                throw new BadRequestException("ID repetido na requisição: " + id);
+            }
+        }
+        for (ImageMetadataChangeDTO item : items) {
+            if (!seen.add(item.id())) {
+                throw new BadRequestException("ID repetido na requisição: " + item.id());
+            }
+        }
+    }
+
+    // Mantém a extensão informada ou acrescenta a correspondente ao content type.
+    private String normalizeFileName(String fileName, String contentType) {
+        boolean hasExtension = VALID_EXTENSIONS.stream()
+                .anyMatch(ext -> fileName.toLowerCase().endsWith(ext));
+        return hasExtension ? fileName : fileName + mapContentTypeToExtension(contentType);
+    }
+
+    private boolean canViewImage(ImageViewSnapshot metadata, UUID userId) {
+        return metadata.visibility() == io.pedrohma07.ImageVault.model.enums.ImageVisibility.PUBLIC
+                || metadata.ownerId().equals(userId);
+    }
+
+    private ImageViewSnapshot findViewSnapshot(UUID imageId) {
+        return imageViewCache.get(imageId)
+                .orElseThrow(() -> {
+                    log.warn("Image metadata not found with ID: {}", imageId);
+                    return new ResourceNotFoundException("Imagem não encontrada com o ID: " + imageId);
+                });
     }
 
     private byte[] createThumbnailBytes(byte[] originalBytes, String contentType) throws Exception {
@@ -188,14 +446,6 @@ public class ImageService {
         return originalKey.replaceFirst("(\\.[^.]+)$", "_thumb$1");
     }
 
-    private User findUserByEmail(String email) {
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> {
-                    log.warn("User not found with email: {}", email);
-                    return new ResourceNotFoundException("Usuário não encontrado com o e-mail: " + email);
-                });
-    }
-
     private ImageMetadata findImageMetadataById(UUID imageId) {
         return imageMetadataRepository.findById(imageId)
                 .orElseThrow(() -> {
@@ -204,9 +454,9 @@ public class ImageService {
                 });
     }
 
-    private void checkImageOwner(ImageMetadata metadata, User user) {
-        if (!metadata.getOwner().equals(user)) {
-            log.warn("Ownership check failed. User {} attempted to access a resource owned by user {}", user.getId(), metadata.getOwner().getId());
+    private void checkImageOwner(ImageMetadata metadata, UUID userId) {
+        if (!metadata.getOwner().getId().equals(userId)) {
+            log.warn("Ownership check failed. User {} attempted to access a resource owned by user {}", userId, metadata.getOwner().getId());
             throw new AccessDeniedException("Permissão negada. O recurso não pertence ao usuário.");
         }
     }
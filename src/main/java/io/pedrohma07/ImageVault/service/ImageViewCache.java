@@ -0,0 +1,134 @@
+package io.pedrohma07.ImageVault.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.pedrohma07.ImageVault.config.ReadReplicaRoutingDataSource;
+import io.pedrohma07.ImageVault.dto.image.ImageViewSnapshot;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Cache local dos metadados usados no caminho de visualização (/view e /view/{id}/thumbnail).
+ * Imagens populares são lidas milhares de vezes enquanto seus metadados quase nunca mudam; com o cache
+ * o caminho quente não faz nenhuma leitura no banco. Invalidado em alterações, remoções e mudanças de
+ * localização do thumbnail (empacotamento/compactação), inclusive nos outros nós via barramento.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImageViewCache implements InvalidatableCache {
+
+    public static final String TOPIC = "image";
+    private static final String ALL = "*";
+    private static final String ID_SEPARATOR = ",";
+    private static final int IDS_PER_EVENT = 200;
+
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.cache.image-view.max-size}")
+    private long maxSize;
+
+    @Value("${app.cache.image-view.ttl}")
+    private Duration ttl;
+
+    private Cache<UUID, Optional<ImageViewSnapshot>> snapshots;
+
+    @PostConstruct
+    public void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "imageViews");
+        cacheInvalidationBus.register(this);
+    }
+
+    // Ids inexistentes também são cacheados (Optional vazio), evitando consultas repetidas por ids inválidos.
+    public Optional<ImageViewSnapshot> get(UUID imageId) {
+        return snapshots.get(imageId, id -> {
+            log.debug("Loading image view snapshot for ID: {}", id);
+            // Sempre no primário: uma visibilidade desatualizada vinda de uma réplica ficaria no cache até o TTL
+            return ReadReplicaRoutingDataSource.onPrimary(() -> imageMetadataRepository.findViewSnapshotById(id));
+        });
+    }
+
+    // Invalida imediatamente e novamente após o commit; os demais nós são avisados pelo barramento.
+    public void evict(UUID imageId) {
+        snapshots.invalidate(imageId);
+        cacheInvalidationBus.publish(TOPIC, imageId);
+        afterCommit(() -> snapshots.invalidate(imageId));
+    }
+
+    // Alterações em lote: um NOTIFY por bloco de ids (o payload do pg_notify é limitado a 8000 bytes)
+    public void evict(Collection<UUID> imageIds) {
+        if (imageIds.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = List.copyOf(imageIds);
+        snapshots.invalidateAll(ids);
+        for (int from = 0; from < ids.size(); from += IDS_PER_EVENT) {
+            List<UUID> chunk = ids.subList(from, Math.min(from + IDS_PER_EVENT, ids.size()));
+            cacheInvalidationBus.publish(TOPIC, chunk.stream().map(UUID::toString).collect(Collectors.joining(ID_SEPARATOR)));
+        }
+        afterCommit(() -> snapshots.invalidateAll(ids));
+    }
+
+    // Para alterações em massa cujos ids não são conhecidos (ex.: reconciliação do storage).
+    public void evictAll() {
+        snapshots.invalidateAll();
+        cacheInvalidationBus.publish(TOPIC, ALL);
+        afterCommit(snapshots::invalidateAll);
+    }
+
+    @Override
+    public String invalidationTopic() {
+        return TOPIC;
+    }
+
+    @Override
+    public void evictLocal(String id) {
+        if (ALL.equals(id)) {
+            snapshots.invalidateAll();
+        } else {
+            for (String imageId : id.split(ID_SEPARATOR)) {
+                snapshots.invalidate(UUID.fromString(imageId));
+            }
+        }
+    }
+
+    @Override
+    public void evictAllLocal() {
+        snapshots.invalidateAll();
+    }
+
+    // ** Metodos auxiliares **
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+}
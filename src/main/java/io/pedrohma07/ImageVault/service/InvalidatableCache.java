@@ -0,0 +1,15 @@
+package io.pedrohma07.ImageVault.service;
+
+/**
+ * Cache local que pode ser invalidado pelo {@link CacheInvalidationBus}.
+ * Os métodos são chamados na thread do listener e devem apenas remover entradas locais, sem publicar novos eventos.
+ */
+public interface InvalidatableCache {
+
+    String invalidationTopic();
+
+    void evictLocal(String id);
+
+    // Chamado após uma reconexão, quando eventos podem ter sido perdidos.
+    void evictAllLocal();
+}
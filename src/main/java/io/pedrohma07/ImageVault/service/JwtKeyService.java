@@ -0,0 +1,216 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.jsonwebtoken.Jwts;
+import io.pedrohma07.ImageVault.dto.auth.JwkDTO;
+import io.pedrohma07.ImageVault.dto.auth.JwksDTO;
+import io.pedrohma07.ImageVault.model.JwtSigningKey;
+import io.pedrohma07.ImageVault.repository.JwtSigningKeyRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Gerencia as chaves ES256 que assinam os JWTs.
+ * As chaves ficam no Postgres (privada cifrada), então todos os nós assinam e validam com o mesmo conjunto.
+ * Uma chave nova é publicada no JWKS por "publish-delay" antes de passar a assinar, para que gateways com
+ * o JWKS em cache já a conheçam; a anterior continua validando até o fim da vida dos tokens que assinou.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JwtKeyService {
+
+    private static final String ALGORITHM = "ES256";
+    private static final long ROTATION_LOCK_KEY = 0x1A6E_7A02L;
+
+    private final JwtSigningKeyRepository jwtSigningKeyRepository;
+    private final EncryptionService encryptionService;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+
+    // "database" (padrão, compartilhado entre nós) ou "ephemeral" (somente em memória, para um único nó/testes)
+    @Value("${jwt.signing.key-store}")
+    private String keyStore;
+
+    @Value("${jwt.signing.rotation-interval}")
+    private Duration rotationInterval;
+
+    @Value("${jwt.signing.publish-delay}")
+    private Duration publishDelay;
+
+    @Value("${jwt.refresh-token.expiration}")
+    private long refreshExpiration;
+
+    public record SigningKey(String kid, PrivateKey privateKey, PublicKey publicKey, Instant createdAt, Instant expiresAt) {}
+
+    private record KeySet(SigningKey current, List<SigningKey> keys, Map<String, SigningKey> byKid) {}
+
+    private volatile KeySet keySet;
+
+    @PostConstruct
+    public void init() {
+        refreshKeys();
+    }
+
+    // O intervalo deve ser menor que publish-delay, garantindo que todos os nós conheçam a chave antes de ela assinar.
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval}")
+    public void refreshKeys() {
+        List<SigningKey> keys = "ephemeral".equals(keyStore) ? rotateInMemory() : loadAndRotateFromDatabase();
+        keySet = buildKeySet(keys);
+    }
+
+    public SigningKey currentSigningKey() {
+        return keySet.current();
+    }
+
+    public Optional<PublicKey> findPublicKey(String kid) {
+        return Optional.ofNullable(keySet.byKid().get(kid)).map(SigningKey::publicKey);
+    }
+
+    // Todas as chaves válidas, inclusive a próxima que ainda não começou a assinar.
+    public JwksDTO jwks() {
+        return new JwksDTO(keySet.keys().stream().map(this::toJwk).toList());
+    }
+
+    // SHA-256 da lista de "kid" (cada chave é imutável, então o conjunto só muda quando a lista muda)
+    public String etag(JwksDTO jwks) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (JwkDTO jwk : jwks.keys()) {
+                digest.update(jwk.kid().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível.", e);
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    private List<SigningKey> loadAndRotateFromDatabase() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        return tx.execute(status -> {
+            // Serializa a rotação entre os nós; a seção é curta e só escreve quando a rotação está vencida
+            entityManager.createNativeQuery("SELECT count(*) FROM (SELECT pg_advisory_xact_lock(:key)) AS l")
+                    .setParameter("key", ROTATION_LOCK_KEY)
+                    .getSingleResult();
+
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            int purged = jwtSigningKeyRepository.deleteExpired(now);
+            if (purged > 0) {
+                log.info("Removed {} expired JWT signing keys", purged);
+            }
+
+            List<JwtSigningKey> stored = jwtSigningKeyRepository.findByExpiresAtAfterOrderByCreatedAtDesc(now);
+            if (stored.isEmpty() || isRotationDue(stored.get(0).getCreatedAt().toInstant())) {
+                SigningKey generated = generateKey();
+                jwtSigningKeyRepository.save(JwtSigningKey.builder()
+                        .kid(generated.kid())
+                        .algorithm(ALGORITHM)
+                        .publicKey(Base64.getEncoder().encodeToString(generated.publicKey().getEncoded()))
+                        .privateKey(encryptionService.encrypt(Base64.getEncoder().encodeToString(generated.privateKey().getEncoded())))
+                        .createdAt(generated.createdAt().atOffset(ZoneOffset.UTC))
+                        .expiresAt(generated.expiresAt().atOffset(ZoneOffset.UTC))
+                        .build());
+                log.info("Generated new JWT signing key {}", generated.kid());
+                stored = jwtSigningKeyRepository.findByExpiresAtAfterOrderByCreatedAtDesc(now);
+            }
+
+            return stored.stream().map(this::decode).toList();
+        });
+    }
+
+    private List<SigningKey> rotateInMemory() {
+        Instant now = Instant.now();
+        List<SigningKey> keys = new ArrayList<>();
+        if (keySet != null) {
+            keySet.keys().stream().filter(key -> key.expiresAt().isAfter(now)).forEach(keys::add);
+        }
+        if (keys.isEmpty() || isRotationDue(keys.get(0).createdAt())) {
+            if (keys.isEmpty()) {
+                log.warn("Using an ephemeral JWT signing key. Tokens will not survive restarts or be valid on other nodes.");
+            }
+            keys.add(0, generateKey());
+        }
+        return keys;
+    }
+
+    private boolean isRotationDue(Instant newestCreatedAt) {
+        return newestCreatedAt.plus(rotationInterval).isBefore(Instant.now());
+    }
+
+    // Assina com a chave mais nova que já foi publicada por tempo suficiente; no bootstrap, com a única existente.
+    private KeySet buildKeySet(List<SigningKey> keys) {
+        Instant publishedBefore = Instant.now().minus(publishDelay);
+        SigningKey current = keys.stream()
+                .filter(key -> !key.createdAt().isAfter(publishedBefore))
+                .findFirst()
+                .orElse(keys.get(0));
+
+        Map<String, SigningKey> byKid = new HashMap<>();
+        keys.forEach(key -> byKid.put(key.kid(), key));
+        return new KeySet(current, List.copyOf(keys), Map.copyOf(byKid));
+    }
+
+    private SigningKey generateKey() {
+        KeyPair keyPair = Jwts.SIG.ES256.keyPair().build();
+        Instant now = Instant.now();
+        // Validade: período como chave atual + publicação da sucessora (com folga) + vida máxima de um token assinado por ela
+        Instant expiresAt = now.plus(rotationInterval).plus(publishDelay).plus(publishDelay).plusMillis(refreshExpiration);
+        return new SigningKey(UUID.randomUUID().toString(), keyPair.getPrivate(), keyPair.getPublic(), now, expiresAt);
+    }
+
+    private SigningKey decode(JwtSigningKey stored) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            PublicKey publicKey = keyFactory.generatePublic(
+                    new X509EncodedKeySpec(Base64.getDecoder().decode(stored.getPublicKey())));
+            PrivateKey privateKey = keyFactory.generatePrivate(
+                    new PKCS8EncodedKeySpec(Base64.getDecoder().decode(encryptionService.decrypt(stored.getPrivateKey()))));
+            return new SigningKey(stored.getKid(), privateKey, publicKey,
+                    stored.getCreatedAt().toInstant(), stored.getExpiresAt().toInstant());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Chave de assinatura JWT inválida: " + stored.getKid(), e);
+        }
+    }
+
+    private JwkDTO toJwk(SigningKey key) {
+        ECPublicKey publicKey = (ECPublicKey) key.publicKey();
+        return new JwkDTO("EC", "P-256", key.kid(), "sig", ALGORITHM,
+                base64Url(publicKey.getW().getAffineX()), base64Url(publicKey.getW().getAffineY()));
+    }
+
+    // Coordenada como inteiro sem sinal de 32 bytes (big-endian), conforme a RFC 7518
+    private static String base64Url(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -1,42 +1,149 @@
 package io.pedrohma07.ImageVault.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.pedrohma07.ImageVault.dto.auth.VerifiedToken;
+import io.pedrohma07.ImageVault.model.User;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String TOKEN_TYPE_CLAIM = "typ";
+
+    private final JwtKeyService jwtKeyService;
+
+    // Segredo HMAC legado: só valida tokens emitidos antes das chaves ES256 (sem "kid")
     @Value("${jwt.secret-key}")
     private String secretKey;
 
+    @Value("${jwt.legacy-hmac.enabled}")
+    private boolean legacyHmacEnabled;
+
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
     @Value("${jwt.refresh-token.expiration}")
     private long refreshExpiration;
 
+    @Value("${jwt.verified-cache.max-size}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.max-ttl}")
+    private Duration verifiedCacheMaxTtl;
+
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+
+    // O parser é imutável e thread-safe, então é construído uma única vez; a chave de cada token
+    // é resolvida pelo "kid" do header no conjunto atual de chaves públicas.
+    @PostConstruct
+    public void init() {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        signInKey = Keys.hmacShaKeyFor(keyBytes);
+        jwtParser = Jwts.parser().keyLocator(new LocatorAdapter<Key>() {
+            @Override
+            protected Key locate(JwsHeader header) {
+                String kid = header.getKeyId();
+                if (kid == null) {
+                    if (legacyHmacEnabled) {
+                        return signInKey;
+                    }
+                    throw new UnsupportedJwtException("Token sem identificador de chave (kid).");
+                }
+                return jwtKeyService.findPublicKey(kid)
+                        .orElseThrow(() -> new UnsupportedJwtException("Chave de assinatura desconhecida: " + kid));
+            }
+        }).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        Duration untilExpiry = Duration.between(Instant.now(), token.expiresAt());
+                        Duration ttl = untilExpiry.compareTo(verifiedCacheMaxTtl) < 0 ? untilExpiry : verifiedCacheMaxTtl;
+                        return Math.max(0, ttl.toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
 
-    // Extrai o username (subject) do token.
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    // Valida assinatura e expiração com um único parse. Tokens já verificados recentemente vêm do cache,
+    // indexado pelo digest do token (o token em si nunca fica em memória como chave).
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        Claims claims = extractAllClaims(token); // lança JwtException se inválido ou expirado
+        String userId = claims.get(USER_ID_CLAIM, String.class);
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.getId(),
+                userId != null ? UUID.fromString(userId) : null,
+                claims.get(ROLE_CLAIM, String.class),
+                tokenType(claims),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration().toInstant()
+        );
+        verifiedTokens.put(digest, verified);
+        return verified;
     }
 
 
-    // Extrai um claim específico do token.
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    // Gera o token de acesso com o id e o papel do usuário, permitindo autenticar sem consultar o banco.
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        if (user.getId() != null) {
+            claims.put(USER_ID_CLAIM, user.getId().toString());
+        }
+        if (user.getRole() != null) {
+            claims.put(ROLE_CLAIM, user.getRole());
+        }
+        return generateToken(claims, user);
     }
 
 
@@ -48,53 +155,62 @@ public class JwtService {
 
     // Gera o token de acesso com claims extras.
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return buildToken(extraClaims, userDetails, jwtExpiration);
+        return buildToken(extraClaims, userDetails, VerifiedToken.ACCESS, jwtExpiration);
     }
 
 
+    // SHA-256 do token, usado para persistir/consultar refresh tokens sem guardar o JWT.
+    public byte[] hashToken(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível.", e);
+        }
+    }
+
     // Gera o refresh token.
     public String generateRefreshToken(UserDetails userDetails) {
-        return buildToken(new HashMap<>(), userDetails, refreshExpiration);
+        return buildToken(new HashMap<>(), userDetails, VerifiedToken.REFRESH, refreshExpiration);
     }
 
-    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
+    private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, String type, long expiration) {
+        JwtKeyService.SigningKey signingKey = jwtKeyService.currentSigningKey();
         return Jwts.builder()
+                .header().keyId(signingKey.kid()).and()
                 .claims(extraClaims)
+                .claim(TOKEN_TYPE_CLAIM, type) // "access" ou "refresh"; só access tokens autenticam requisições
+                .id(UUID.randomUUID().toString()) // "jti", usado na revogação
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signingKey.privateKey(), Jwts.SIG.ES256)
                 .compact();
     }
 
 
-    // Verifica se o token é válido para um determinado usuário.
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Tokens emitidos antes do claim "typ" são classificados pela validade: só quem dura até jwt.expiration
+    // pode ser um access token (o refresh token dura jwt.refresh-token.expiration). "iat" e "exp" têm precisão de
+    // segundos, daí a folga de um segundo.
+    private String tokenType(Claims claims) {
+        String type = claims.get(TOKEN_TYPE_CLAIM, String.class);
+        if (type != null) {
+            return type;
+        }
+        if (claims.getIssuedAt() == null) {
+            return null;
+        }
+        long lifetime = claims.getExpiration().getTime() - claims.getIssuedAt().getTime();
+        return lifetime <= jwtExpiration + 1000 ? VerifiedToken.ACCESS : VerifiedToken.REFRESH;
     }
 
     // Extrai todos os claims do token
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-
-    // Obtém a chave de assinatura a partir da secret key (Base64).
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private String digest(String token) {
+        return Base64.getEncoder().encodeToString(hashToken(token));
     }
 }
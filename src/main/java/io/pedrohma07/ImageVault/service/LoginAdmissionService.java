@@ -0,0 +1,253 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.exception.TooManyRequestsException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Controle de admissão do login.
+ * O bcrypt é propositalmente caro, então um ataque de credential stuffing consegue ocupar todos os núcleos.
+ * As tentativas passam por token buckets (por IP e por e-mail) e, opcionalmente, por um contador compartilhado
+ * no Postgres; as admitidas rodam em um executor dedicado e limitado, que descarta o que esperou demais na fila.
+ * O excedente recebe 429 imediatamente, sem gastar CPU com hash.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginAdmissionService {
+
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.auth.login.threads}")
+    private int threads;
+
+    @Value("${app.auth.login.queue-capacity}")
+    private int queueCapacity;
+
+    @Value("${app.auth.login.queue-timeout}")
+    private Duration queueTimeout;
+
+    @Value("${app.auth.login.rate-limit.stripes}")
+    private int stripes;
+
+    @Value("${app.auth.login.rate-limit.ip.capacity}")
+    private double ipCapacity;
+
+    @Value("${app.auth.login.rate-limit.ip.refill-per-minute}")
+    private double ipRefillPerMinute;
+
+    @Value("${app.auth.login.rate-limit.email.capacity}")
+    private double emailCapacity;
+
+    @Value("${app.auth.login.rate-limit.email.refill-per-minute}")
+    private double emailRefillPerMinute;
+
+    @Value("${app.auth.login.shared-limit.enabled}")
+    private boolean sharedLimitEnabled;
+
+    @Value("${app.auth.login.shared-limit.window}")
+    private Duration sharedWindow;
+
+    @Value("${app.auth.login.shared-limit.max-attempts-per-ip}")
+    private int sharedMaxPerIp;
+
+    @Value("${app.auth.login.shared-limit.max-attempts-per-email}")
+    private int sharedMaxPerEmail;
+
+    private ThreadPoolExecutor executor;
+    private StripedTokenBuckets ipBuckets;
+    private StripedTokenBuckets emailBuckets;
+    private TransactionTemplate counterTx;
+    private Counter accepted;
+    private Counter rejectedRateLimit;
+    private Counter rejectedQueueFull;
+    private Counter rejectedQueueTimeout;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "login-worker");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+
+        ipBuckets = new StripedTokenBuckets(stripes, ipCapacity, ipRefillPerMinute / 60.0);
+        emailBuckets = new StripedTokenBuckets(stripes, emailCapacity, emailRefillPerMinute / 60.0);
+
+        counterTx = new TransactionTemplate(transactionManager);
+        counterTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        accepted = Counter.builder("imagevault.auth.login.admission").tag("outcome", "accepted").register(meterRegistry);
+        rejectedRateLimit = Counter.builder("imagevault.auth.login.admission").tag("outcome", "rate_limited").register(meterRegistry);
+        rejectedQueueFull = Counter.builder("imagevault.auth.login.admission").tag("outcome", "queue_full").register(meterRegistry);
+        rejectedQueueTimeout = Counter.builder("imagevault.auth.login.admission").tag("outcome", "queue_timeout").register(meterRegistry);
+        Gauge.builder("imagevault.auth.login.queued", () -> executor.getQueue().size()).register(meterRegistry);
+        Gauge.builder("imagevault.auth.login.active", () -> executor.getActiveCount()).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public <T> T admit(String clientIp, String email, Supplier<T> login) {
+        String ipKey = "ip:" + clientIp;
+        String emailKey = "email:" + email.trim().toLowerCase(Locale.ROOT);
+
+        long retryAfter = Math.max(ipBuckets.tryConsume(ipKey), emailBuckets.tryConsume(emailKey));
+        if (retryAfter == 0 && sharedLimitEnabled) {
+            retryAfter = checkSharedLimit(ipKey, emailKey);
+        }
+        if (retryAfter > 0) {
+            rejectedRateLimit.increment();
+            log.warn("Login rate limit exceeded for IP {} / email {}", clientIp, email);
+            throw new TooManyRequestsException("Muitas tentativas de login. Tente novamente mais tarde.", retryAfter);
+        }
+
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (System.nanoTime() - enqueuedAt > queueTimeout.toNanos()) {
+                    rejectedQueueTimeout.increment();
+                    throw new TooManyRequestsException("Servidor ocupado. Tente novamente em instantes.", 1);
+                }
+                accepted.increment();
+                return login.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            log.warn("Login queue is full. Rejecting attempt from IP {}", clientIp);
+            throw new TooManyRequestsException("Servidor ocupado. Tente novamente em instantes.", 1);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Login interrompido.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Falha ao processar o login.", e.getCause());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.login.shared-limit.cleanup-interval}")
+    public void purgeExpiredWindows() {
+        if (!sharedLimitEnabled) {
+            return;
+        }
+        Integer deleted = counterTx.execute(status -> entityManager
+                .createNativeQuery("DELETE FROM dev.login_attempt_windows WHERE window_start < :cutoff")
+                .setParameter("cutoff", OffsetDateTime.now(ZoneOffset.UTC).minus(sharedWindow.multipliedBy(2)))
+                .executeUpdate());
+        log.debug("Purged {} expired login attempt windows", deleted);
+    }
+
+    // ** Metodos auxiliares **
+
+    // Janela fixa compartilhada: um upsert por chave, retornando o total de tentativas na janela atual.
+    private long checkSharedLimit(String ipKey, String emailKey) {
+        long windowMillis = sharedWindow.toMillis();
+        long nowMillis = System.currentTimeMillis();
+        long windowStartMillis = nowMillis - Math.floorMod(nowMillis, windowMillis);
+        OffsetDateTime windowStart = OffsetDateTime.ofInstant(Instant.ofEpochMilli(windowStartMillis), ZoneOffset.UTC);
+        long retryAfter = Math.max(1, (windowStartMillis + windowMillis - nowMillis) / 1000);
+
+        try {
+            int[] attempts = counterTx.execute(status -> new int[]{
+                    incrementWindow(ipKey, windowStart),
+                    incrementWindow(emailKey, windowStart)
+            });
+            return attempts[0] > sharedMaxPerIp || attempts[1] > sharedMaxPerEmail ? retryAfter : 0;
+        } catch (RuntimeException e) {
+            // Os buckets locais continuam protegendo o nó se o banco estiver indisponível
+            log.warn("Shared login counter unavailable. Falling back to local rate limits.", e);
+            return 0;
+        }
+    }
+
+    private int incrementWindow(String key, OffsetDateTime windowStart) {
+        Number attempts = (Number) entityManager.createNativeQuery("""
+                        INSERT INTO dev.login_attempt_windows (bucket_key, window_start, attempts)
+                        VALUES (:key, :windowStart, 1)
+                        ON CONFLICT (bucket_key, window_start)
+                        DO UPDATE SET attempts = dev.login_attempt_windows.attempts + 1
+                        RETURNING attempts
+                        """)
+                .setParameter("key", key)
+                .setParameter("windowStart", windowStart)
+                .getSingleResult();
+        return attempts.intValue();
+    }
+
+    /**
+     * Token buckets em um número fixo de faixas (stripes): a memória é constante mesmo com milhões de IPs/e-mails
+     * distintos, e chaves que colidem apenas dividem o mesmo limite (erro a favor da proteção).
+     */
+    private static final class StripedTokenBuckets {
+
+        private final double capacity;
+        private final double refillPerSecond;
+        private final double[] tokens;
+        private final long[] lastRefillNanos;
+        private final Object[] locks;
+
+        private StripedTokenBuckets(int stripes, double capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+            this.tokens = new double[stripes];
+            this.lastRefillNanos = new long[stripes];
+            this.locks = new Object[stripes];
+            long now = System.nanoTime();
+            for (int i = 0; i < stripes; i++) {
+                tokens[i] = capacity;
+                lastRefillNanos[i] = now;
+                locks[i] = new Object();
+            }
+        }
+
+        // Retorna 0 se o token foi consumido, ou os segundos até haver um token disponível.
+        private long tryConsume(String key) {
+            int hash = key.hashCode();
+            int stripe = Math.floorMod(hash ^ (hash >>> 16), tokens.length);
+            synchronized (locks[stripe]) {
+                long now = System.nanoTime();
+                double elapsedSeconds = (now - lastRefillNanos[stripe]) / 1_000_000_000.0;
+                tokens[stripe] = Math.min(capacity, tokens[stripe] + elapsedSeconds * refillPerSecond);
+                lastRefillNanos[stripe] = now;
+
+                if (tokens[stripe] >= 1) {
+                    tokens[stripe] -= 1;
+                    return 0;
+                }
+                return (long) Math.ceil((1 - tokens[stripe]) / refillPerSecond);
+            }
+        }
+    }
+}
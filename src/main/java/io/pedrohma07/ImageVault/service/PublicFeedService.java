@@ -0,0 +1,179 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.dto.CursorPageResponse;
+import io.pedrohma07.ImageVault.dto.image.ImageCursor;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Feed público (imagens PUBLIC de todos os usuários, mais recentes primeiro), paginado por cursor.
+ * As primeiras "snapshot-size" imagens ficam num snapshot em memória recarregado em segundo plano; páginas que
+ * cabem nele não consultam o banco. Mudanças de visibilidade e exclusões aparecem no feed em até um intervalo
+ * de recarga (a visualização da imagem continua checando o acesso).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PublicFeedService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.images.public-feed.snapshot-size}")
+    private int snapshotSize;
+
+    @Value("${app.images.public-feed.max-staleness}")
+    private Duration maxStaleness;
+
+    // "complete": o snapshot contém todas as imagens públicas, então nenhuma página precisa do banco
+    private record Snapshot(List<ImageMetadataDTO> images, boolean complete, Instant loadedAt) {}
+
+    private volatile Snapshot snapshot;
+    private TransactionTemplate readOnlyTx;
+    private Counter snapshotHits;
+    private Counter databaseHits;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        snapshotHits = Counter.builder("imagevault.images.public_feed").tag("source", "snapshot").register(meterRegistry);
+        databaseHits = Counter.builder("imagevault.images.public_feed").tag("source", "database").register(meterRegistry);
+    }
+
+    public CursorPageResponse<ImageMetadataDTO> listPublicImages(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ImageCursor after = cursor == null || cursor.isBlank() ? null : ImageCursor.decode(cursor);
+
+        // Busca uma linha a mais para saber se existe próxima página
+        List<ImageMetadataDTO> rows = fromSnapshot(after, pageSize + 1);
+        if (rows != null) {
+            snapshotHits.increment();
+        } else {
+            databaseHits.increment();
+            rows = readOnlyTx.execute(status -> imageMetadataRepository.findPublicDtoSlice(after, pageSize + 1));
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ImageMetadataDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ImageMetadataDTO last = page.get(page.size() - 1);
+            nextCursor = new ImageCursor(last.uploadTimestamp(), last.id()).encode();
+        }
+        return new CursorPageResponse<>(List.copyOf(page), pageSize, nextCursor, hasMore, null);
+    }
+
+    // SHA-256 do conteúdo da página: estável entre nós e reinícios (não depende de hashCode de enums ou objetos).
+    public String etag(CursorPageResponse<ImageMetadataDTO> page) {
+        MessageDigest digest = sha256();
+        for (ImageMetadataDTO image : page.data()) {
+            update(digest, image.id().toString());
+            update(digest, image.fileName());
+            update(digest, image.contentType());
+            update(digest, Long.toString(image.size()));
+            update(digest, image.visibility() != null ? image.visibility().name() : null);
+            update(digest, image.ownerId() != null ? image.ownerId().toString() : null);
+            update(digest, image.uploadTimestamp() != null ? image.uploadTimestamp().toInstant().toString() : null);
+        }
+        update(digest, Integer.toString(page.limit()));
+        update(digest, page.nextCursor());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // Recarrega fora do caminho das requisições; com réplicas configuradas a leitura vai para elas.
+    @Scheduled(fixedDelayString = "${app.images.public-feed.refresh-interval}")
+    public void refreshSnapshot() {
+        try {
+            List<ImageMetadataDTO> images = readOnlyTx.execute(
+                    status -> imageMetadataRepository.findPublicDtoSlice(null, snapshotSize));
+            snapshot = new Snapshot(List.copyOf(images), images.size() < snapshotSize, Instant.now());
+            log.debug("Refreshed public feed snapshot with {} images", images.size());
+        } catch (RuntimeException e) {
+            // Mantém o snapshot anterior até max-staleness; depois disso as requisições vão ao banco
+            log.warn("Failed to refresh public feed snapshot", e);
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    // Retorna a fatia do snapshot após o cursor, ou null quando o snapshot não cobre a página inteira.
+    private List<ImageMetadataDTO> fromSnapshot(ImageCursor after, int count) {
+        Snapshot current = snapshot;
+        if (current == null || current.loadedAt().plus(maxStaleness).isBefore(Instant.now())) {
+            return null;
+        }
+
+        List<ImageMetadataDTO> images = current.images();
+        int start = after == null ? 0 : firstIndexAfter(images, after);
+        if (start + count > images.size() && !current.complete()) {
+            return null;
+        }
+        return images.subList(start, Math.min(start + count, images.size()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 não disponível.", e);
+        }
+    }
+
+    // Cada campo termina com um separador nulo, então campos vizinhos não se confundem
+    private static void update(MessageDigest digest, String value) {
+        if (value != null) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+    }
+
+    // Busca binária pela primeira imagem depois do cursor na ordem (upload_timestamp DESC, id)
+    private int firstIndexAfter(List<ImageMetadataDTO> images, ImageCursor cursor) {
+        int low = 0, high = images.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (isAfter(images.get(mid), cursor)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private boolean isAfter(ImageMetadataDTO image, ImageCursor cursor) {
+        if (!image.uploadTimestamp().isEqual(cursor.uploadTimestamp())) {
+            return image.uploadTimestamp().isBefore(cursor.uploadTimestamp());
+        }
+        return compareLikePostgres(image.id(), cursor.id()) > 0;
+    }
+
+    // O Postgres ordena uuid byte a byte (sem sinal); UUID.compareTo compara os longs com sinal
+    private static int compareLikePostgres(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
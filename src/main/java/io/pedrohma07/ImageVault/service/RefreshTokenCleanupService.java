@@ -0,0 +1,54 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.repository.RefreshTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Remove refresh tokens expirados em lotes limitados (cada lote em sua própria transação),
+ * para que a tabela não cresça com tokens que ninguém mais apresenta.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenCleanupService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.auth.refresh-token.purge.batch-size}")
+    private int batchSize;
+
+    @Value("${app.auth.refresh-token.purge.max-batches-per-run}")
+    private int maxBatchesPerRun;
+
+    private Counter purgedCounter;
+
+    @PostConstruct
+    public void init() {
+        purgedCounter = Counter.builder("imagevault.auth.refresh_tokens.purged").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.refresh-token.purge.interval}")
+    public void purgeExpired() {
+        long total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int deleted = refreshTokenRepository.deleteExpiredBatch(batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+
+        purgedCounter.increment(total);
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.pedrohma07.ImageVault.config.ReadReplicaRoutingDataSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+// Mede periodicamente o atraso de replicação; réplicas acima de max-lag deixam de receber leituras até alcançarem.
+@Service
+@RequiredArgsConstructor
+public class ReplicaLagMonitor {
+
+    private final ReadReplicaRoutingDataSource readReplicaRoutingDataSource;
+
+    @Value("${app.datasource.replicas.max-lag}")
+    private Duration maxLag;
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.check-interval}")
+    public void checkReplicas() {
+        if (readReplicaRoutingDataSource.hasReplicas()) {
+            readReplicaRoutingDataSource.checkReplicas(maxLag);
+        }
+    }
+}
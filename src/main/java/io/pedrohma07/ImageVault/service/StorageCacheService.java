@@ -0,0 +1,264 @@
+package io.pedrohma07.ImageVault.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Cache local em disco (por nó) na frente do bucket S3.
+ * A admissão/evicção usa o W-TinyLFU do Caffeine, limitado pelo total de bytes em disco.
+ * O índice é persistido em disco para que o cache sobreviva a reinícios.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageCacheService {
+
+    private static final String INDEX_FILE = "index.tsv";
+    private static final String BLOB_SUFFIX = ".blob";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.cache.enabled}")
+    private boolean enabled;
+
+    @Value("${app.storage.cache.directory}")
+    private String directory;
+
+    @Value("${app.storage.cache.max-size-bytes}")
+    private long maxSizeBytes;
+
+    @Value("${app.storage.cache.max-object-size-bytes}")
+    private long maxObjectSizeBytes;
+
+    @Value("${app.storage.cache.mmap-threshold-bytes}")
+    private long mmapThresholdBytes;
+
+    private Path root;
+    private Cache<String, CachedBlob> index;
+    private Counter hits;
+    private Counter misses;
+    private Counter bytesFromCache;
+    private Counter bytesFromOrigin;
+
+    private record CachedBlob(String fileName, long size) {
+    }
+
+    @PostConstruct
+    public void init() {
+        hits = Counter.builder("imagevault.storage.cache.requests").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("imagevault.storage.cache.requests").tag("result", "miss").register(meterRegistry);
+        bytesFromCache = Counter.builder("imagevault.storage.cache.served.bytes").tag("source", "cache").baseUnit("bytes").register(meterRegistry);
+        bytesFromOrigin = Counter.builder("imagevault.storage.cache.served.bytes").tag("source", "origin").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("imagevault.storage.cache.hit.ratio", this, StorageCacheService::hitRatio).register(meterRegistry);
+
+        if (!enabled) {
+            log.info("Local storage cache is disabled.");
+            return;
+        }
+
+        index = Caffeine.newBuilder()
+                .maximumWeight(maxSizeBytes)
+                .weigher((String key, CachedBlob blob) -> (int) Math.min(blob.size(), Integer.MAX_VALUE))
+                .removalListener((String key, CachedBlob blob, RemovalCause cause) -> {
+                    if (blob != null) {
+                        deleteQuietly(root.resolve(blob.fileName()));
+                    }
+                })
+                .build();
+        Gauge.builder("imagevault.storage.cache.size.bytes", index, c -> c.policy().eviction().orElseThrow().weightedSize().orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        try {
+            root = Files.createDirectories(Path.of(directory));
+            loadIndex();
+            log.info("Local storage cache initialized at {} with {} entries.", root, index.estimatedSize());
+        } catch (IOException e) {
+            log.error("Failed to initialize local storage cache at {}. Cache will be disabled.", directory, e);
+            enabled = false;
+        }
+    }
+
+    // Retorna o objeto do cache local ou o busca na origem e o armazena para as próximas leituras.
+    public byte[] getOrLoad(String storageKey, Supplier<byte[]> loader) {
+        Optional<byte[]> cached = get(storageKey);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        byte[] bytes = loader.get();
+        bytesFromOrigin.increment(bytes.length);
+        put(storageKey, bytes);
+        return bytes;
+    }
+
+    public Optional<byte[]> get(String storageKey) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        CachedBlob blob = index.getIfPresent(storageKey);
+        if (blob == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        try {
+            byte[] bytes = read(root.resolve(blob.fileName()), blob.size());
+            hits.increment();
+            bytesFromCache.increment(bytes.length);
+            log.debug("Local cache hit for key: {}", storageKey);
+            return Optional.of(bytes);
+        } catch (IOException e) {
+            log.warn("Failed to read cached file for key: {}. Invalidating entry.", storageKey, e);
+            index.invalidate(storageKey);
+            misses.increment();
+            return Optional.empty();
+        }
+    }
+
+    public void put(String storageKey, byte[] bytes) {
+        if (!enabled || bytes.length > maxObjectSizeBytes) {
+            return;
+        }
+
+        String fileName = UUID.randomUUID() + BLOB_SUFFIX;
+        Path target = root.resolve(fileName);
+        try {
+            Path tmp = Files.createTempFile(root, "write-", ".tmp");
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            index.put(storageKey, new CachedBlob(fileName, bytes.length));
+        } catch (IOException e) {
+            log.warn("Failed to write key {} to local cache.", storageKey, e);
+            deleteQuietly(target);
+        }
+    }
+
+    public void invalidate(String storageKey) {
+        if (enabled) {
+            index.invalidate(storageKey);
+        }
+    }
+
+    public void invalidateAll(Iterable<String> storageKeys) {
+        if (enabled) {
+            index.invalidateAll(storageKeys);
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.storage.cache.index-flush-interval}")
+    public void flushIndex() {
+        if (!enabled) {
+            return;
+        }
+
+        index.cleanUp();
+        try {
+            Path tmp = Files.createTempFile(root, "index-", ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, CachedBlob> entry : index.asMap().entrySet()) {
+                    writer.write(entry.getValue().fileName() + "\t" + entry.getValue().size() + "\t" + entry.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, root.resolve(INDEX_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Flushed local cache index with {} entries.", index.estimatedSize());
+        } catch (IOException e) {
+            log.warn("Failed to flush local cache index.", e);
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    private byte[] read(Path path, long size) throws IOException {
+        if (size > mmapThresholdBytes) {
+            return Files.readAllBytes(path);
+        }
+
+        // Objetos pequenos são lidos via mmap, evitando cópias extras no kernel
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            byte[] bytes = new byte[(int) size];
+            buffer.get(bytes);
+            return bytes;
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        Set<String> referenced = new HashSet<>();
+        Path indexFile = root.resolve(INDEX_FILE);
+
+        if (Files.exists(indexFile)) {
+            List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                // Índice truncado ou corrompido (ex.: queda durante a gravação): a linha é descartada
+                String[] parts = line.split("\t", 3);
+                if (parts.length != 3) {
+                    log.warn("Ignoring malformed local cache index line: {}", line);
+                    continue;
+                }
+                Path blobPath;
+                long size;
+                try {
+                    blobPath = root.resolve(parts[0]);
+                    size = Long.parseLong(parts[1]);
+                } catch (NumberFormatException | InvalidPathException e) {
+                    log.warn("Ignoring malformed local cache index line: {}", line);
+                    continue;
+                }
+                if (Files.exists(blobPath) && Files.size(blobPath) == size) {
+                    index.put(parts[2], new CachedBlob(parts[0], size));
+                    referenced.add(parts[0]);
+                }
+            }
+        }
+
+        // Remove arquivos órfãos (ex.: escritos após o último flush do índice)
+        try (Stream<Path> files = Files.list(root)) {
+            files.filter(path -> !path.getFileName().toString().equals(INDEX_FILE))
+                    .filter(path -> !referenced.contains(path.getFileName().toString()))
+                    .forEach(this::deleteQuietly);
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached file: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.model.StorageDeletion;
+import io.pedrohma07.ImageVault.repository.StorageDeletionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Outbox transacional para exclusões no storage.
+ * As chaves são gravadas na mesma transação que remove os metadados e um drenador em background
+ * as exclui do S3 em lotes, com retentativas e backoff exponencial.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageDeletionService {
+
+    private final StorageDeletionRepository storageDeletionRepository;
+    private final StorageService storageService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.deletion.batch-size}")
+    private int batchSize;
+
+    @Value("${app.storage.deletion.max-batches-per-run}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.storage.deletion.lease-seconds}")
+    private int leaseSeconds;
+
+    @Value("${app.storage.deletion.retry-base-seconds}")
+    private int retryBaseSeconds;
+
+    @Value("${app.storage.deletion.retry-max-seconds}")
+    private int retryMaxSeconds;
+
+    private Counter deletedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        deletedCounter = Counter.builder("imagevault.storage.deletion.objects").tag("result", "deleted").register(meterRegistry);
+        failedCounter = Counter.builder("imagevault.storage.deletion.objects").tag("result", "failed").register(meterRegistry);
+    }
+
+    // Deve ser chamado dentro da transação que remove os metadados, para que ambos sejam confirmados juntos.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Collection<String> storageKeys) {
+        List<StorageDeletion> deletions = storageKeys.stream()
+                .filter(Objects::nonNull)
+                .map(key -> StorageDeletion.builder().storageKey(key).build())
+                .toList();
+        storageDeletionRepository.saveAll(deletions);
+        log.debug("Enqueued {} storage keys for deletion", deletions.size());
+    }
+
+    // Para processos em background que não participam de uma transação de negócio.
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void enqueueInNewTransaction(Collection<String> storageKeys) {
+        enqueue(storageKeys);
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.deletion.drain-interval}")
+    public void drain() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<StorageDeletion> batch = storageDeletionRepository.claimBatch(batchSize, leaseSeconds);
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            processBatch(batch);
+
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    private void processBatch(List<StorageDeletion> batch) {
+        List<String> keys = batch.stream().map(StorageDeletion::getStorageKey).distinct().toList();
+
+        Map<String, String> failures;
+        try {
+            failures = storageService.deleteFiles(keys);
+        } catch (Exception e) {
+            log.error("Batch deletion of {} storage objects failed. Scheduling retry.", keys.size(), e);
+            storageDeletionRepository.markFailed(ids(batch), truncate(e.getMessage()), retryBaseSeconds, retryMaxSeconds);
+            failedCounter.increment(batch.size());
+            return;
+        }
+
+        List<Long> succeeded = batch.stream()
+                .filter(deletion -> !failures.containsKey(deletion.getStorageKey()))
+                .map(StorageDeletion::getId)
+                .toList();
+        storageDeletionRepository.deleteAllByIdInBatch(succeeded);
+        deletedCounter.increment(succeeded.size());
+
+        batch.stream()
+                .filter(deletion -> failures.containsKey(deletion.getStorageKey()))
+                .forEach(deletion -> {
+                    log.warn("Failed to delete storage key {} (attempt {}): {}",
+                            deletion.getStorageKey(), deletion.getAttempts() + 1, failures.get(deletion.getStorageKey()));
+                    storageDeletionRepository.markFailed(List.of(deletion.getId()),
+                            truncate(failures.get(deletion.getStorageKey())), retryBaseSeconds, retryMaxSeconds);
+                    failedCounter.increment();
+                });
+
+        log.info("Drained {} storage deletions ({} failed)", succeeded.size(), batch.size() - succeeded.size());
+    }
+
+    private List<Long> ids(List<StorageDeletion> batch) {
+        return batch.stream().map(StorageDeletion::getId).toList();
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1024 ? message.substring(0, 1024) : message;
+    }
+}
@@ -0,0 +1,288 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.config.ReadReplicaRoutingDataSource;
+import io.pedrohma07.ImageVault.model.enums.ImageChangeType;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository.StorageKeyReference;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepositoryCustom.DeletedImage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Reconcilia o bucket com a tabela image_metadata.
+ * As duas fontes são lidas já ordenadas (ListObjectsV2 paginado e páginas por keyset no Postgres) e combinadas
+ * com um merge-join, então a memória usada é constante independente do tamanho do bucket.
+ * A carência vale para os dois lados: objetos e linhas criados depois de início - grace-period ficam para a próxima
+ * execução, já que a listagem e as páginas do banco não são lidas no mesmo instante.
+ * Cada página de chaves é lida numa transação curta: a varredura pode levar horas, mas nenhum snapshot fica
+ * aberto por todo esse tempo (o que seguraria o vacuum de image_metadata).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageReconciliationService {
+
+    private static final long ADVISORY_LOCK_KEY = 0x1A6E_7A01L;
+    private static final int CLEANUP_BATCH_SIZE = 500;
+    private static final int KEY_PAGE_SIZE = 1000;
+
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final StorageService storageService;
+    private final StorageDeletionService storageDeletionService;
+    private final StorageUsageService storageUsageService;
+    private final ImageChangeLogService imageChangeLogService;
+    private final ImageViewCache imageViewCache;
+    private final PlatformTransactionManager transactionManager;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.reconciliation.cleanup}")
+    private boolean cleanup;
+
+    @Value("${app.storage.reconciliation.grace-period}")
+    private Duration gracePeriod;
+
+    public record ReconciliationReport(
+            long objectsScanned,
+            long keysScanned,
+            long orphanObjects,
+            long orphanBytes,
+            long missingObjects,
+            boolean cleanedUp,
+            Duration elapsed
+    ) {}
+
+    @Scheduled(cron = "${app.storage.reconciliation.cron}")
+    public void scheduledReconcile() {
+        reconcile();
+    }
+
+    // O lock é de sessão, numa conexão própria sem transação aberta; é liberado ao fim (ou se o nó cair).
+    // Fora de transação somente leitura a conexão vai ao primário, então o lock exclui todos os nós.
+    public ReconciliationReport reconcile() {
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!tryAdvisoryLock(lockConnection, true)) {
+                log.info("Storage reconciliation is already running on another node. Skipping.");
+                return null;
+            }
+            try {
+                return runReconciliation();
+            } finally {
+                tryAdvisoryLock(lockConnection, false);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao obter o lock da reconciliação do storage.", e);
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    private ReconciliationReport runReconciliation() {
+        log.info("Starting storage reconciliation (cleanup: {})", cleanup);
+        Instant start = Instant.now();
+        Instant orphanCutoff = start.minus(gracePeriod);
+        TransactionTemplate writeTx = new TransactionTemplate(transactionManager);
+        writeTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        List<String> orphanBatch = new ArrayList<>();
+        List<String> missingOriginalBatch = new ArrayList<>();
+        List<String> missingThumbnailBatch = new ArrayList<>();
+        long objectsScanned = 0, keysScanned = 0, orphanObjects = 0, orphanBytes = 0, missingObjects = 0;
+
+        Iterator<S3Object> objectIterator = storageService.listAllObjects().iterator();
+        Iterator<StorageKeyReference> referenceIterator = new StorageKeyPageIterator(orphanCutoff.atOffset(ZoneOffset.UTC));
+        S3Object object = objectIterator.hasNext() ? objectIterator.next() : null;
+        StorageKeyReference reference = referenceIterator.hasNext() ? referenceIterator.next() : null;
+
+        while (object != null || reference != null) {
+            int cmp = object == null ? 1 : reference == null ? -1 : compareKeys(object.key(), reference.getStorageKey());
+
+            if (cmp < 0) {
+                // Objeto no bucket sem metadados
+                objectsScanned++;
+                if (object.lastModified().isBefore(orphanCutoff)) {
+                    orphanObjects++;
+                    orphanBytes += object.size();
+                    log.warn("Orphan storage object: {} ({} bytes)", object.key(), object.size());
+                    orphanBatch.add(object.key());
+                }
+                object = objectIterator.hasNext() ? objectIterator.next() : null;
+            } else if (cmp > 0 && Boolean.TRUE.equals(reference.getRecent())) {
+                // Criada depois do início da carência: o objeto pode ter sido enviado depois que a sua página do
+                // bucket foi listada. Fica para a próxima execução, como os objetos órfãos recentes.
+                keysScanned++;
+                reference = referenceIterator.hasNext() ? referenceIterator.next() : null;
+            } else if (cmp > 0) {
+                // Metadados apontando para um objeto inexistente
+                keysScanned++;
+                missingObjects++;
+                log.warn("Missing storage object for {} key: {}", reference.getKind(), reference.getStorageKey());
+                switch (reference.getKind()) {
+                    case "ORIGINAL" -> missingOriginalBatch.add(reference.getStorageKey());
+                    case "THUMBNAIL" -> missingThumbnailBatch.add(reference.getStorageKey());
+                    // Packs perdidos afetam muitas imagens; ficam apenas no relatório para análise manual
+                    default -> { }
+                }
+                reference = referenceIterator.hasNext() ? referenceIterator.next() : null;
+            } else {
+                objectsScanned++;
+                keysScanned++;
+                String key = object.key();
+                object = objectIterator.hasNext() ? objectIterator.next() : null;
+                reference = referenceIterator.hasNext() ? referenceIterator.next() : null;
+                while (reference != null && reference.getStorageKey().equals(key)) {
+                    keysScanned++;
+                    reference = referenceIterator.hasNext() ? referenceIterator.next() : null;
+                }
+            }
+
+            if (orphanBatch.size() + missingOriginalBatch.size() + missingThumbnailBatch.size() >= CLEANUP_BATCH_SIZE) {
+                flush(writeTx, orphanBatch, missingOriginalBatch, missingThumbnailBatch);
+            }
+        }
+        flush(writeTx, orphanBatch, missingOriginalBatch, missingThumbnailBatch);
+
+        ReconciliationReport report = new ReconciliationReport(objectsScanned, keysScanned, orphanObjects, orphanBytes,
+                missingObjects, cleanup, Duration.between(start, Instant.now()));
+        Counter.builder("imagevault.storage.reconciliation.orphans").tag("type", "object").register(meterRegistry).increment(orphanObjects);
+        Counter.builder("imagevault.storage.reconciliation.orphans").tag("type", "metadata").register(meterRegistry).increment(missingObjects);
+        log.info("Storage reconciliation finished: {}", report);
+        return report;
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx;
+    }
+
+    // pg_try_advisory_lock / pg_advisory_unlock em modo autocommit
+    private boolean tryAdvisoryLock(Connection connection, boolean lock) throws SQLException {
+        String sql = lock ? "SELECT pg_try_advisory_lock(?)" : "SELECT pg_advisory_unlock(?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+
+    // Por dono (em ordem de id): libera o uso e grava os tombstones, nessa ordem de locks (ver ImageChangeLogService.record)
+    private void releaseDeleted(List<DeletedImage> deleted) {
+        Map<UUID, List<DeletedImage>> byOwner = deleted.stream()
+                .collect(Collectors.groupingBy(DeletedImage::ownerId, TreeMap::new, Collectors.toList()));
+        byOwner.forEach((ownerId, images) -> {
+            storageUsageService.release(ownerId, images.stream().mapToLong(DeletedImage::size).sum(), images.size());
+            imageChangeLogService.record(ownerId, ImageChangeType.DELETED,
+                    images.stream().map(DeletedImage::key).toList());
+        });
+    }
+
+    private void flush(TransactionTemplate writeTx, List<String> orphans, List<String> missingOriginals, List<String> missingThumbnails) {
+        if (cleanup && !(orphans.isEmpty() && missingOriginals.isEmpty() && missingThumbnails.isEmpty())) {
+            writeTx.executeWithoutResult(status -> {
+                if (!orphans.isEmpty()) {
+                    storageDeletionService.enqueue(orphans);
+                }
+                if (!missingOriginals.isEmpty()) {
+                    List<DeletedImage> deleted = imageMetadataRepository.deleteByStorageKeys(missingOriginals);
+                    releaseDeleted(deleted);
+                    log.info("Deleted {} metadata rows pointing to missing objects", deleted.size());
+                }
+                if (!missingThumbnails.isEmpty()) {
+                    imageMetadataRepository.clearThumbnailStorageKeys(missingThumbnails);
+                }
+                if (!missingOriginals.isEmpty() || !missingThumbnails.isEmpty()) {
+                    imageViewCache.evictAll();
+                }
+            });
+        }
+        orphans.clear();
+        missingOriginals.clear();
+        missingThumbnails.clear();
+    }
+
+    // Lê as chaves referenciadas em páginas por keyset (chave, tipo), uma transação curta por página.
+    // Sempre no primário: a limpeza decide com base nestas páginas, e numa réplica atrasada uma imagem recém-criada
+    // pareceria ausente (o objeto viraria órfão).
+    private final class StorageKeyPageIterator implements Iterator<StorageKeyReference> {
+
+        private final TransactionTemplate readTx = readOnlyTransaction();
+        private final OffsetDateTime createdBefore;
+        private Iterator<StorageKeyReference> page = Collections.emptyIterator();
+        private String afterKey = "";
+        private String afterKind = "";
+        private boolean exhausted;
+
+        private StorageKeyPageIterator(OffsetDateTime createdBefore) {
+            this.createdBefore = createdBefore;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !exhausted) {
+                List<StorageKeyReference> next = ReadReplicaRoutingDataSource.onPrimary(() -> readTx.execute(status ->
+                        imageMetadataRepository.findStorageKeysAfter(afterKey, afterKind, createdBefore, KEY_PAGE_SIZE)));
+                exhausted = next.size() < KEY_PAGE_SIZE;
+                if (!next.isEmpty()) {
+                    StorageKeyReference last = next.get(next.size() - 1);
+                    afterKey = last.getStorageKey();
+                    afterKind = last.getKind();
+                }
+                page = next.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public StorageKeyReference next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return page.next();
+        }
+    }
+
+    // Compara por code point, o que equivale à ordem dos bytes UTF-8 usada pelo S3 e pelo COLLATE "C".
+    private static int compareKeys(String a, String b) {
+        int i = 0, j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -11,18 +11,30 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
 import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -32,6 +44,8 @@ import java.util.UUID;
 public class StorageService {
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
+    private final StorageCacheService storageCacheService;
+    private final HedgedReadService hedgedReadService;
 
     @Value("${aws.s3.bucket-name}")
     private String bucketName;
@@ -39,9 +53,9 @@ public class StorageService {
     private static final Set<String> SUPPORTED_TYPES = Set.of("image/jpeg", "image/png", "image/webp", "image/jpg");
 
     public ImageMetadata uploadFile(MultipartFile file, User owner) {
-        log.debug("Starting upload process for user: {}", owner.getEmail());
+        log.debug("Starting upload process for user: {}", owner.getId());
         if (file.isEmpty()) {
-            log.warn("Attempted to upload an empty file by user: {}", owner.getEmail());
+            log.warn("Attempted to upload an empty file by user: {}", owner.getId());
             throw new IllegalStateException("Não é possível fazer upload de um arquivo vazio.");
         }
 
@@ -51,7 +65,7 @@ public class StorageService {
                 !(contentType.equalsIgnoreCase("image/jpeg") ||
                   contentType.equalsIgnoreCase("image/png") ||
                   contentType.equalsIgnoreCase("image/webp"))) {
-            log.warn("Unsupported file type '{}' uploaded by user: {}", contentType, owner.getEmail());
+            log.warn("Unsupported file type '{}' uploaded by user: {}", contentType, owner.getId());
             throw new IllegalStateException("Apenas arquivos de imagem (jpg, png, webp) são permitidos.");
         }
 
@@ -72,7 +86,7 @@ public class StorageService {
             // Envia o arquivo
             s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
 
-            log.info("Successfully uploaded file to S3 for user: {} with key: {}", owner.getEmail(), storageKey);
+            log.info("Successfully uploaded file to S3 for user: {} with key: {}", owner.getId(), storageKey);
 
             return ImageMetadata.builder()
                     .owner(owner)
@@ -84,7 +98,7 @@ public class StorageService {
                     .build();
 
         } catch (IOException e) {
-            log.error("Failed to upload file for user: {}", owner.getEmail(), e);
+            log.error("Failed to upload file for user: {}", owner.getId(), e);
             throw new RuntimeException("Falha ao fazer upload do arquivo.", e);
         }
     }
@@ -96,9 +110,44 @@ public class StorageService {
                 .key(storageKey)
                 .build();
         s3Client.deleteObject(deleteObjectRequest);
+        storageCacheService.invalidate(storageKey);
         log.info("Successfully deleted file from S3 with key: {}", storageKey);
     }
 
+    // Exclui vários objetos em uma única chamada (máx. 1000 chaves) e retorna as chaves que falharam com o erro.
+    public Map<String, String> deleteFiles(List<String> storageKeys) {
+        log.debug("Deleting {} files from S3 in batch", storageKeys.size());
+        DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder()
+                        .objects(storageKeys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                        .quiet(true)
+                        .build())
+                .build();
+        DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest);
+
+        Map<String, String> failures = new HashMap<>();
+        for (S3Error error : response.errors()) {
+            failures.put(error.key(), error.code() + ": " + error.message());
+        }
+
+        Set<String> deleted = new HashSet<>(storageKeys);
+        deleted.removeAll(failures.keySet());
+        storageCacheService.invalidateAll(deleted);
+
+        log.info("Batch deleted {} files from S3 ({} failures)", deleted.size(), failures.size());
+        return failures;
+    }
+
+    // Lista todos os objetos do bucket em ordem de chave. As páginas são buscadas sob demanda durante a iteração.
+    public SdkIterable<S3Object> listAllObjects() {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucketName)
+                .maxKeys(1000)
+                .build();
+        return s3Client.listObjectsV2Paginator(request).contents();
+    }
+
     public String generatePresignedUrl(String storageKey) {
         log.debug("Generating presigned URL for key: {}", storageKey);
 
@@ -119,16 +168,31 @@ public class StorageService {
     }
 
     public byte[] downloadFile(String storageKey) {
+        return storageCacheService.getOrLoad(storageKey, () -> downloadFromOrigin(storageKey));
+    }
+
+    private byte[] downloadFromOrigin(String storageKey) {
         log.debug("Downloading file from S3 with key: {}", storageKey);
         GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(bucketName)
                 .key(storageKey)
                 .build();
-        ResponseBytes<GetObjectResponse> responseBytes = s3Client.getObjectAsBytes(getObjectRequest);
+        ResponseBytes<GetObjectResponse> responseBytes = hedgedReadService.read(() -> s3Client.getObjectAsBytes(getObjectRequest));
         log.info("Successfully downloaded file from S3 with key: {}", storageKey);
         return responseBytes.asByteArray();
     }
 
+    // Leitura parcial (HTTP Range) de um objeto, usada para ler thumbnails dentro de packs.
+    public byte[] downloadRange(String storageKey, long offset, int length) {
+        log.debug("Downloading range [{}, +{}) from S3 with key: {}", offset, length, storageKey);
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(storageKey)
+                .range(String.format("bytes=%d-%d", offset, offset + length - 1))
+                .build();
+        return hedgedReadService.read(() -> s3Client.getObjectAsBytes(getObjectRequest)).asByteArray();
+    }
+
     public void uploadThumbnail(byte[] thumbnailBytes, String storageKey, String contentType) {
         log.debug("Uploading thumbnail to S3 with key: {}", storageKey);
 
@@ -0,0 +1,140 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.dto.user.StorageUsageDTO;
+import io.pedrohma07.ImageVault.exception.QuotaExceededException;
+import io.pedrohma07.ImageVault.model.UserUsage;
+import io.pedrohma07.ImageVault.repository.UserUsageRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Uso de armazenamento e cota por usuário, mantidos na tabela user_usage.
+ * Reservas e liberações rodam na transação do upload/remoção (atualização atômica de uma linha, O(1));
+ * a reconciliação periódica recalcula a partir de image_metadata e corrige qualquer divergência.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StorageUsageService {
+
+    private static final UUID FIRST_USER_ID = new UUID(0L, 0L);
+
+    private final UserUsageRepository userUsageRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.quota.default-bytes}")
+    private long defaultQuotaBytes;
+
+    @Value("${app.quota.reconciliation.batch-size}")
+    private int reconciliationBatchSize;
+
+    private Counter rejections;
+    private Counter corrections;
+
+    @PostConstruct
+    public void init() {
+        rejections = Counter.builder("imagevault.quota.rejections").register(meterRegistry);
+        corrections = Counter.builder("imagevault.quota.reconciliation.corrections").register(meterRegistry);
+    }
+
+    // Rejeição antecipada, sem lock, antes de enviar o arquivo ao storage; a garantia vem de reserve().
+    @Transactional(readOnly = true)
+    public void checkAvailable(UUID userId, long bytes) {
+        UserUsage usage = userUsageRepository.findById(userId).orElse(null);
+        long used = usage == null ? 0 : usage.getBytesUsed();
+        if (used + bytes > quotaOf(usage)) {
+            rejections.increment();
+            throw quotaExceeded(usage, bytes);
+        }
+    }
+
+    // Fica no fim do upload (seguido só do registro no log de mudanças, que vem depois pela ordem de locks):
+    // o lock da linha dura até o fim da transação.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(UUID userId, long bytes) {
+        userUsageRepository.ensureExists(userId);
+        if (userUsageRepository.reserve(userId, bytes, defaultQuotaBytes) == 0) {
+            rejections.increment();
+            log.warn("Quota exceeded for user {} (upload of {} bytes)", userId, bytes);
+            throw quotaExceeded(userUsageRepository.findById(userId).orElse(null), bytes);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(UUID userId, long bytes, int images) {
+        userUsageRepository.release(userId, bytes, images);
+    }
+
+    @Transactional(readOnly = true)
+    public StorageUsageDTO getUsage(UUID userId) {
+        UserUsage usage = userUsageRepository.findById(userId).orElse(null);
+        long used = usage == null ? 0 : usage.getBytesUsed();
+        long quota = quotaOf(usage);
+        return new StorageUsageDTO(used, usage == null ? 0 : usage.getImageCount(), quota, Math.max(0, quota - used));
+    }
+
+    /**
+     * Percorre user_usage em lotes por user_id, cada lote em sua própria transação.
+     * As linhas do lote são travadas antes do recálculo (em um comando separado, com snapshot novo):
+     * uploads/remoções em andamento ou já aplicaram seu incremento (e o lock espera o commit) ou ainda
+     * não o aplicaram (e não aparecem no recálculo), então a correção não perde atualizações concorrentes.
+     */
+    @Scheduled(fixedDelayString = "${app.quota.reconciliation.interval}")
+    public void reconcile() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        UUID after = FIRST_USER_ID;
+        long scanned = 0;
+        long corrected = 0;
+
+        while (after != null) {
+            UUID cursor = after;
+            int[] result = new int[2];
+            after = tx.execute(status -> {
+                List<UUID> batch = userUsageRepository.lockBatch(cursor, reconciliationBatchSize);
+                if (batch.isEmpty()) {
+                    return null;
+                }
+                UUID[] ids = batch.toArray(UUID[]::new);
+                result[0] = batch.size();
+                result[1] = userUsageRepository.correctDrift(ids);
+                userUsageRepository.markReconciled(ids);
+                return batch.size() < reconciliationBatchSize ? null : batch.get(batch.size() - 1);
+            });
+            scanned += result[0];
+            corrected += result[1];
+        }
+
+        corrections.increment(corrected);
+        if (corrected > 0) {
+            log.warn("Storage usage reconciliation corrected {} of {} users", corrected, scanned);
+        } else {
+            log.debug("Storage usage reconciliation checked {} users, no drift", scanned);
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    private long quotaOf(UserUsage usage) {
+        return usage != null && usage.getQuotaBytes() != null ? usage.getQuotaBytes() : defaultQuotaBytes;
+    }
+
+    private QuotaExceededException quotaExceeded(UserUsage usage, long bytes) {
+        long available = Math.max(0, quotaOf(usage) - (usage == null ? 0 : usage.getBytesUsed()));
+        return new QuotaExceededException("Cota de armazenamento excedida. Disponível: " + available
+                + " bytes; necessário: " + bytes + " bytes.");
+    }
+}
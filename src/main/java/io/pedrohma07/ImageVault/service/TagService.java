@@ -0,0 +1,130 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.pedrohma07.ImageVault.dto.CursorPageResponse;
+import io.pedrohma07.ImageVault.dto.image.ImageCursor;
+import io.pedrohma07.ImageVault.dto.image.ImageMetadataDTO;
+import io.pedrohma07.ImageVault.dto.image.MembershipChangeDTO;
+import io.pedrohma07.ImageVault.dto.tag.CreateTagDTO;
+import io.pedrohma07.ImageVault.dto.tag.TagDTO;
+import io.pedrohma07.ImageVault.exception.BadRequestException;
+import io.pedrohma07.ImageVault.exception.ResourceNotFoundException;
+import io.pedrohma07.ImageVault.model.Tag;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import io.pedrohma07.ImageVault.repository.TagRepository;
+import io.pedrohma07.ImageVault.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+// Tags do usuário; mesmo modelo dos álbuns (associação em lote, contador mantido por trigger).
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class TagService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final TagRepository tagRepository;
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final UserRepository userRepository;
+
+    @Value("${app.collections.max-images-per-call}")
+    private int maxImagesPerCall;
+
+    public TagDTO createTag(UUID userId, CreateTagDTO request) {
+        String name = request.name().trim();
+        if (tagRepository.existsByOwnerIdAndName(userId, name)) {
+            throw new IllegalArgumentException("Já existe uma tag com o nome: " + name);
+        }
+
+        Tag tag = tagRepository.save(Tag.builder()
+                .owner(userRepository.getReferenceById(userId))
+                .name(name)
+                .build());
+        log.info("Created tag {} for user {}", tag.getId(), userId);
+        return new TagDTO(tag.getId(), tag.getName(), 0, tag.getCreatedAt());
+    }
+
+    @Transactional(readOnly = true)
+    public List<TagDTO> listTags(UUID userId) {
+        return tagRepository.findDtosByOwnerId(userId);
+    }
+
+    public void deleteTag(UUID tagId, UUID userId) {
+        if (tagRepository.deleteByIdAndOwnerId(tagId, userId) == 0) {
+            throw tagNotFound(tagId);
+        }
+        log.info("Deleted tag {}", tagId);
+    }
+
+    public MembershipChangeDTO tagImages(UUID tagId, UUID userId, List<UUID> imageIds) {
+        UUID[] ids = distinctIds(imageIds);
+        checkTagOwner(tagId, userId);
+
+        int added = tagRepository.addImages(tagId, userId, ids);
+        TagDTO tag = findTagDto(tagId, userId);
+        log.info("Tagged {} of {} images with tag {}", added, ids.length, tagId);
+        return new MembershipChangeDTO(ids.length, added, tag.imageCount());
+    }
+
+    public MembershipChangeDTO untagImages(UUID tagId, UUID userId, List<UUID> imageIds) {
+        UUID[] ids = distinctIds(imageIds);
+        checkTagOwner(tagId, userId);
+
+        int removed = tagRepository.removeImages(tagId, ids);
+        TagDTO tag = findTagDto(tagId, userId);
+        log.info("Untagged {} of {} images from tag {}", removed, ids.length, tagId);
+        return new MembershipChangeDTO(ids.length, removed, tag.imageCount());
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ImageMetadataDTO> listTaggedImages(UUID tagId, UUID userId, String cursor, int limit) {
+        TagDTO tag = findTagDto(tagId, userId);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        ImageCursor after = cursor == null || cursor.isBlank() ? null : ImageCursor.decode(cursor);
+
+        // Busca uma linha a mais para saber se existe próxima página
+        List<ImageMetadataDTO> rows = imageMetadataRepository.findDtoSliceByTag(tagId, after, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ImageMetadataDTO> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ImageMetadataDTO last = page.get(page.size() - 1);
+            nextCursor = new ImageCursor(last.uploadTimestamp(), last.id()).encode();
+        }
+        return new CursorPageResponse<>(List.copyOf(page), pageSize, nextCursor, hasMore, (long) tag.imageCount());
+    }
+
+    // ** Metodos auxiliares **
+
+    private UUID[] distinctIds(List<UUID> imageIds) {
+        UUID[] ids = new LinkedHashSet<>(imageIds).toArray(UUID[]::new);
+        if (ids.length > maxImagesPerCall) {
+            throw new BadRequestException("Máximo de " + maxImagesPerCall + " imagens por requisição.");
+        }
+        return ids;
+    }
+
+    private void checkTagOwner(UUID tagId, UUID userId) {
+        if (!tagRepository.existsByIdAndOwnerId(tagId, userId)) {
+            throw tagNotFound(tagId);
+        }
+    }
+
+    private TagDTO findTagDto(UUID tagId, UUID userId) {
+        return tagRepository.findDtoByIdAndOwnerId(tagId, userId).orElseThrow(() -> tagNotFound(tagId));
+    }
+
+    private ResourceNotFoundException tagNotFound(UUID tagId) {
+        log.warn("Tag not found with ID: {}", tagId);
+        return new ResourceNotFoundException("Tag não encontrada com o ID: " + tagId);
+    }
+}
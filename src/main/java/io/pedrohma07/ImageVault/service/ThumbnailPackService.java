@@ -0,0 +1,277 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.pedrohma07.ImageVault.model.ImageMetadata;
+import io.pedrohma07.ImageVault.model.ThumbnailPack;
+import io.pedrohma07.ImageVault.model.ThumbnailPackEntry;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
+import io.pedrohma07.ImageVault.repository.ThumbnailPackEntryRepository;
+import io.pedrohma07.ImageVault.repository.ThumbnailPackRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Empacota thumbnails pequenos em objetos grandes ("packs") para reduzir o custo por requisição/objeto no S3.
+ * O índice (offset, tamanho) de cada thumbnail fica no Postgres e a leitura vira um GET com Range.
+ * Packs que ficam esparsos após exclusões são reescritos pelo compactador.
+ * Empacotamento e compactação rodam em um nó por vez (advisory lock de sessão) e fazem o I/O no S3 sem transação
+ * aberta; a escrita final é condicional, então imagens excluídas ou alteradas durante o I/O ficam de fora.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ThumbnailPackService {
+
+    private static final String PACK_KEY_PREFIX = "packs/thumbnails/";
+    private static final long PACKING_LOCK_KEY = 0x1A6E_7A04L;
+    private static final long COMPACTION_LOCK_KEY = 0x1A6E_7A05L;
+
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final ThumbnailPackRepository thumbnailPackRepository;
+    private final ThumbnailPackEntryRepository thumbnailPackEntryRepository;
+    private final StorageService storageService;
+    private final StorageCacheService storageCacheService;
+    private final StorageDeletionService storageDeletionService;
+    private final ImageViewCache imageViewCache;
+    private final PlatformTransactionManager transactionManager;
+    private final DataSource dataSource;
+
+    @Value("${app.storage.thumbnail-packing.enabled}")
+    private boolean enabled;
+
+    @Value("${app.storage.thumbnail-packing.min-age}")
+    private Duration minAge;
+
+    @Value("${app.storage.thumbnail-packing.max-entries-per-pack}")
+    private int maxEntriesPerPack;
+
+    @Value("${app.storage.thumbnail-packing.download-parallelism}")
+    private int downloadParallelism;
+
+    @Value("${app.storage.thumbnail-packing.compaction-threshold}")
+    private double compactionThreshold;
+
+    private ExecutorService downloadExecutor;
+
+    @PostConstruct
+    public void init() {
+        downloadExecutor = Executors.newFixedThreadPool(downloadParallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        downloadExecutor.shutdownNow();
+    }
+
+    // Lê um thumbnail empacotado a partir da localização já conhecida. Cada fatia é imutável, então pode ser cacheada localmente.
+    public byte[] readPackedThumbnail(String packKey, long offset, int length) {
+        String sliceKey = packKey + "#" + offset + ":" + length;
+        return storageCacheService.getOrLoad(sliceKey, () -> storageService.downloadRange(packKey, offset, length));
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.thumbnail-packing.interval}")
+    public void packLooseThumbnails() {
+        if (enabled) {
+            runExclusively(PACKING_LOCK_KEY, this::pack);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.thumbnail-packing.interval}")
+    public void compactSparsePacks() {
+        if (enabled) {
+            runExclusively(COMPACTION_LOCK_KEY, this::compact);
+        }
+    }
+
+    // ** Metodos auxiliares **
+
+    // Cada execução: leitura curta dos candidatos, downloads e upload sem transação aberta (nenhuma linha fica
+    // travada durante o I/O no S3) e uma escrita curta que só empacota as imagens que não mudaram nesse meio tempo.
+    private void pack() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<ImageMetadata> images = tx.execute(status -> imageMetadataRepository.findLooseThumbnails(
+                OffsetDateTime.now().minus(minAge), maxEntriesPerPack));
+        if (images.size() < maxEntriesPerPack / 4) {
+            log.debug("Only {} loose thumbnails available. Waiting for more before packing.", images.size());
+            return;
+        }
+
+        List<CompletableFuture<byte[]>> downloads = images.stream()
+                .map(image -> CompletableFuture.supplyAsync(
+                        () -> storageService.downloadFile(image.getThumbnailStorageKey()), downloadExecutor))
+                .toList();
+
+        ByteArrayOutputStream packBytes = new ByteArrayOutputStream();
+        Map<UUID, ThumbnailPackEntry> entries = new HashMap<>();
+        ThumbnailPack pack = ThumbnailPack.builder()
+                .storageKey(PACK_KEY_PREFIX + UUID.randomUUID() + ".pack")
+                .build();
+
+        for (int i = 0; i < images.size(); i++) {
+            ImageMetadata image = images.get(i);
+            byte[] thumbnail = downloads.get(i).join();
+            entries.put(image.getId(), ThumbnailPackEntry.builder()
+                    .imageId(image.getId())
+                    .imageUploadedAt(image.getUploadTimestamp())
+                    .pack(pack)
+                    .byteOffset(packBytes.size())
+                    .byteLength(thumbnail.length)
+                    .build());
+            packBytes.writeBytes(thumbnail);
+        }
+
+        pack.setTotalBytes(packBytes.size());
+        storageService.uploadThumbnail(packBytes.toByteArray(), pack.getStorageKey(), "application/octet-stream");
+
+        UUID[] ids = images.stream().map(ImageMetadata::getId).toArray(UUID[]::new);
+        String[] uploadedAts = images.stream().map(image -> image.getUploadTimestamp().toString()).toArray(String[]::new);
+        String[] looseKeys = images.stream().map(ImageMetadata::getThumbnailStorageKey).toArray(String[]::new);
+        List<UUID> packed = writeOrDiscard(pack.getStorageKey(), () -> tx.execute(status -> {
+            List<UUID> detached = imageMetadataRepository.detachLooseThumbnails(ids, uploadedAts, looseKeys);
+            if (detached.isEmpty()) {
+                storageDeletionService.enqueue(List.of(pack.getStorageKey()));
+                return detached;
+            }
+
+            List<ThumbnailPackEntry> packedEntries = detached.stream().map(entries::get).toList();
+            pack.setLiveBytes(packedEntries.stream().mapToLong(ThumbnailPackEntry::getByteLength).sum());
+            thumbnailPackRepository.save(pack);
+            thumbnailPackEntryRepository.saveAll(packedEntries);
+
+            Set<UUID> detachedIds = new HashSet<>(detached);
+            storageDeletionService.enqueue(images.stream()
+                    .filter(image -> detachedIds.contains(image.getId()))
+                    .map(ImageMetadata::getThumbnailStorageKey)
+                    .toList());
+            imageViewCache.evict(detached);
+            return detached;
+        }));
+
+        log.info("Packed {} of {} thumbnails ({} of {} bytes live) into {}", packed.size(), images.size(),
+                pack.getLiveBytes(), pack.getTotalBytes(), pack.getStorageKey());
+    }
+
+    private void compact() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        for (ThumbnailPack pack : tx.execute(status -> thumbnailPackRepository.findSparsePacks(compactionThreshold, 1))) {
+            List<ThumbnailPackEntry> liveEntries = tx.execute(status -> thumbnailPackEntryRepository.findByPack(pack));
+
+            if (liveEntries.isEmpty()) {
+                tx.executeWithoutResult(status -> deleteEmptyPack(pack));
+                continue;
+            }
+
+            byte[] oldPack = storageService.downloadFile(pack.getStorageKey());
+            ByteArrayOutputStream packBytes = new ByteArrayOutputStream();
+            UUID[] imageIds = new UUID[liveEntries.size()];
+            Long[] byteOffsets = new Long[liveEntries.size()];
+            Map<UUID, Integer> lengths = new HashMap<>();
+
+            for (int i = 0; i < liveEntries.size(); i++) {
+                ThumbnailPackEntry entry = liveEntries.get(i);
+                int start = (int) entry.getByteOffset();
+                imageIds[i] = entry.getImageId();
+                byteOffsets[i] = (long) packBytes.size();
+                lengths.put(entry.getImageId(), entry.getByteLength());
+                packBytes.write(oldPack, start, entry.getByteLength());
+            }
+
+            ThumbnailPack newPack = ThumbnailPack.builder()
+                    .storageKey(PACK_KEY_PREFIX + UUID.randomUUID() + ".pack")
+                    .totalBytes(packBytes.size())
+                    .liveBytes(packBytes.size())
+                    .build();
+            storageService.uploadThumbnail(packBytes.toByteArray(), newPack.getStorageKey(), "application/octet-stream");
+
+            List<UUID> moved = writeOrDiscard(newPack.getStorageKey(), () -> tx.execute(status -> {
+                thumbnailPackRepository.saveAndFlush(newPack);
+                List<UUID> movedIds = thumbnailPackEntryRepository.moveEntries(pack.getId(), newPack.getId(), imageIds, byteOffsets);
+                if (movedIds.isEmpty()) {
+                    thumbnailPackRepository.delete(newPack);
+                    storageDeletionService.enqueue(List.of(newPack.getStorageKey()));
+                } else {
+                    newPack.setLiveBytes(movedIds.stream().mapToLong(lengths::get).sum());
+                    imageViewCache.evict(movedIds);
+                }
+                deleteEmptyPack(pack);
+                return movedIds;
+            }));
+
+            log.info("Compacted pack {} ({} of {} bytes live, {} of {} entries moved)",
+                    pack.getStorageKey(), pack.getLiveBytes(), pack.getTotalBytes(), moved.size(), liveEntries.size());
+        }
+    }
+
+    // O pack antigo só some se nenhuma entrada ainda aponta para ele; o objeto vai para o outbox na mesma transação
+    private void deleteEmptyPack(ThumbnailPack pack) {
+        if (thumbnailPackRepository.deleteIfEmpty(pack.getId()) > 0) {
+            storageDeletionService.enqueue(List.of(pack.getStorageKey()));
+        } else {
+            log.warn("Pack {} still has entries after compaction. Keeping it.", pack.getStorageKey());
+        }
+    }
+
+    // Se a escrita falhar, o pack recém-enviado não é referenciado por nada e vai para o outbox
+    private <T> T writeOrDiscard(String uploadedKey, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (RuntimeException e) {
+            storageDeletionService.enqueueInNewTransaction(List.of(uploadedKey));
+            throw e;
+        }
+    }
+
+    // Lock de sessão numa conexão própria, sem transação aberta: exclui os outros nós durante toda a execução,
+    // inclusive o I/O no S3, sem travar linhas.
+    private void runExclusively(long lockKey, Runnable task) {
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!tryAdvisoryLock(lockConnection, lockKey, true)) {
+                log.debug("Thumbnail packing task is already running on another node. Skipping.");
+                return;
+            }
+            try {
+                task.run();
+            } finally {
+                tryAdvisoryLock(lockConnection, lockKey, false);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Falha ao obter o lock do empacotamento de thumbnails.", e);
+        }
+    }
+
+    // pg_try_advisory_lock / pg_advisory_unlock em modo autocommit
+    private boolean tryAdvisoryLock(Connection connection, long lockKey, boolean lock) throws SQLException {
+        String sql = lock ? "SELECT pg_try_advisory_lock(?)" : "SELECT pg_advisory_unlock(?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, lockKey);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package io.pedrohma07.ImageVault.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.pedrohma07.ImageVault.config.ReadReplicaRoutingDataSource;
+import io.pedrohma07.ImageVault.dto.auth.VerifiedToken;
+import io.pedrohma07.ImageVault.model.RevokedToken;
+import io.pedrohma07.ImageVault.model.UserTokenCutoff;
+import io.pedrohma07.ImageVault.repository.RefreshTokenRepository;
+import io.pedrohma07.ImageVault.repository.RevokedTokenRepository;
+import io.pedrohma07.ImageVault.repository.UserTokenCutoffRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revogação de tokens (logout e "sair de todas as sessões").
+ * As revogações ficam no Postgres e cada nó mantém um espelho em memória: um filtro de Bloom na frente de um
+ * conjunto exato de "jti" revogados e o corte ("not before") por usuário. A checagem no filtro de autenticação
+ * é O(1) e sem consulta ao banco; os nós são avisados pelo barramento de invalidação e as entradas somem
+ * quando os tokens correspondentes já teriam expirado.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    public static final String REVOKED_TOKEN_TOPIC = "revoked-token";
+    public static final String TOKEN_CUTOFF_TOPIC = "token-cutoff";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserTokenCutoffRepository userTokenCutoffRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${jwt.refresh-token.expiration}")
+    private long refreshExpiration;
+
+    @Value("${jwt.revocation.bloom-bits-per-entry}")
+    private int bloomBitsPerEntry;
+
+    @Value("${jwt.revocation.min-bloom-entries}")
+    private int minBloomEntries;
+
+    // Lido sem lock a cada requisição; escritas são raras (logout) e serializadas por "this"
+    private record RevocationState(BloomFilter bloom, Map<String, Instant> revokedTokens, Map<UUID, Instant> cutoffs) {}
+
+    private volatile RevocationState state;
+
+    @PostConstruct
+    public void init() {
+        reload();
+        cacheInvalidationBus.register(new RevocationListener(REVOKED_TOKEN_TOPIC));
+        cacheInvalidationBus.register(new RevocationListener(TOKEN_CUTOFF_TOPIC));
+        Gauge.builder("imagevault.auth.revocations", () -> state.revokedTokens().size()).tag("type", "token").register(meterRegistry);
+        Gauge.builder("imagevault.auth.revocations", () -> state.cutoffs().size()).tag("type", "user_cutoff").register(meterRegistry);
+    }
+
+    // Chamado a cada requisição autenticada
+    public boolean isRevoked(VerifiedToken token, UUID userId) {
+        RevocationState current = state;
+        if (token.tokenId() != null && current.bloom().mightContain(token.tokenId())
+                && current.revokedTokens().containsKey(token.tokenId())) {
+            return true;
+        }
+
+        Instant cutoff = userId != null ? current.cutoffs().get(userId) : null;
+        // "iat" tem precisão de segundos: tokens emitidos no mesmo segundo do corte também são revogados
+        return cutoff != null && (token.issuedAt() == null || !token.issuedAt().isAfter(cutoff));
+    }
+
+    // Logout: revoga o access token atual, o "jti" do refresh token (quando enviado e do mesmo usuário) e remove o
+    // refresh token do usuário.
+    @Transactional
+    public void revoke(VerifiedToken token, VerifiedToken refreshToken, UUID userId) {
+        refreshTokenRepository.deleteByUserId(userId);
+        if (token.tokenId() == null) {
+            // Tokens anteriores ao claim "jti" só podem ser revogados pelo corte por usuário
+            revokeAll(userId);
+            return;
+        }
+
+        revokeTokenId(token, userId);
+        if (refreshToken != null && refreshToken.isRefreshToken() && refreshToken.tokenId() != null
+                && refreshToken.subject().equals(token.subject())) {
+            revokeTokenId(refreshToken, userId);
+        }
+    }
+
+    // Revoga todas as sessões: tokens emitidos até agora deixam de valer.
+    // O corte vive enquanto o token mais longo emitido antes dele (o refresh token) ainda poderia ser válido.
+    @Transactional
+    public void revokeAll(UUID userId) {
+        Instant notBefore = Instant.now();
+        Instant expiresAt = notBefore.plusMillis(Math.max(jwtExpiration, refreshExpiration));
+        refreshTokenRepository.deleteByUserId(userId);
+        userTokenCutoffRepository.upsert(userId, notBefore.atOffset(ZoneOffset.UTC), expiresAt.atOffset(ZoneOffset.UTC));
+        cacheInvalidationBus.publish(TOKEN_CUTOFF_TOPIC, userId);
+        addCutoff(userId, notBefore);
+        log.info("Revoked all sessions of user {}", userId);
+    }
+
+    // Remove do banco e da memória entradas cujos tokens já expiraram; também ressincroniza o espelho local.
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-interval}")
+    public void prune() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        int tokens = revokedTokenRepository.deleteExpired(now);
+        int cutoffs = userTokenCutoffRepository.deleteExpired(now);
+        if (tokens + cutoffs > 0) {
+            log.info("Pruned {} revoked tokens and {} session cutoffs", tokens, cutoffs);
+        }
+        reload();
+    }
+
+    // ** Metodos auxiliares **
+
+    private void revokeTokenId(VerifiedToken token, UUID userId) {
+        revokedTokenRepository.insertIgnoringDuplicates(token.tokenId(), userId, token.expiresAt().atOffset(ZoneOffset.UTC));
+        cacheInvalidationBus.publish(REVOKED_TOKEN_TOPIC, token.tokenId());
+        addRevokedToken(token.tokenId(), token.expiresAt());
+        log.info("Revoked {} token {} of user {}", token.type(), token.tokenId(), userId);
+    }
+
+    private synchronized void reload() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        // No primário: revogações recém-gravadas podem ainda não ter chegado às réplicas
+        List<RevokedToken> revokedTokens = ReadReplicaRoutingDataSource.onPrimary(() -> revokedTokenRepository.findByExpiresAtAfter(now));
+        List<UserTokenCutoff> cutoffs = ReadReplicaRoutingDataSource.onPrimary(() -> userTokenCutoffRepository.findByExpiresAtAfter(now));
+
+        // Dimensiona o filtro com folga para as revogações até o próximo recarregamento
+        BloomFilter bloom = new BloomFilter(Math.max(minBloomEntries, revokedTokens.size() * 2), bloomBitsPerEntry);
+        Map<String, Instant> tokenMap = new ConcurrentHashMap<>();
+        for (RevokedToken revoked : revokedTokens) {
+            bloom.put(revoked.getJti());
+            tokenMap.put(revoked.getJti(), revoked.getExpiresAt().toInstant());
+        }
+        Map<UUID, Instant> cutoffMap = new ConcurrentHashMap<>();
+        cutoffs.forEach(cutoff -> cutoffMap.put(cutoff.getUserId(), cutoff.getNotBefore().toInstant()));
+
+        state = new RevocationState(bloom, tokenMap, cutoffMap);
+        log.debug("Loaded {} revoked tokens and {} session cutoffs", tokenMap.size(), cutoffMap.size());
+    }
+
+    private synchronized void addRevokedToken(String jti, Instant expiresAt) {
+        // Adiciona ao conjunto exato antes do filtro: quem passar pelo filtro sempre encontra a entrada
+        state.revokedTokens().put(jti, expiresAt);
+        state.bloom().put(jti);
+    }
+
+    private synchronized void addCutoff(UUID userId, Instant notBefore) {
+        state.cutoffs().merge(userId, notBefore, (previous, next) -> next.isAfter(previous) ? next : previous);
+    }
+
+    // Recebe revogações feitas em outros nós
+    private final class RevocationListener implements InvalidatableCache {
+
+        private final String topic;
+
+        private RevocationListener(String topic) {
+            this.topic = topic;
+        }
+
+        @Override
+        public String invalidationTopic() {
+            return topic;
+        }
+
+        @Override
+        public void evictLocal(String id) {
+            if (REVOKED_TOKEN_TOPIC.equals(topic)) {
+                revokedTokenRepository.findById(id)
+                        .ifPresent(revoked -> addRevokedToken(revoked.getJti(), revoked.getExpiresAt().toInstant()));
+            } else {
+                userTokenCutoffRepository.findById(UUID.fromString(id))
+                        .ifPresent(cutoff -> addCutoff(cutoff.getUserId(), cutoff.getNotBefore().toInstant()));
+            }
+        }
+
+        // Após reconexão do barramento, recarrega tudo (eventos podem ter sido perdidos)
+        @Override
+        public void evictAllLocal() {
+            reload();
+        }
+    }
+
+    /**
+     * Filtro de Bloom simples sobre um AtomicLongArray (inserções concorrentes sem lock).
+     * Usa double hashing a partir de um hash de 64 bits do jti.
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        private BloomFilter(int expectedEntries, int bitsPerEntry) {
+            long size = Math.max(64, (long) expectedEntries * bitsPerEntry);
+            this.bits = new AtomicLongArray((int) ((size + 63) / 64));
+            this.bitCount = (long) bits.length() * 64;
+            this.hashCount = Math.max(1, (int) Math.round(bitsPerEntry * Math.log(2)));
+        }
+
+        private void put(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(index);
+                } while ((current & mask) == 0 && !bits.compareAndSet(index, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash, h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a de 64 bits seguido de um finalizador (mix do SplitMix64)
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+            hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+            return hash ^ (hash >>> 31);
+        }
+    }
+}
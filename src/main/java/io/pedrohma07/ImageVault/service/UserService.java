@@ -6,6 +6,7 @@ import io.pedrohma07.ImageVault.dto.user.UpdateUserDTO;
 import io.pedrohma07.ImageVault.exception.ResourceNotFoundException;
 import io.pedrohma07.ImageVault.mapper.UserMapper;
 import io.pedrohma07.ImageVault.model.User;
+import io.pedrohma07.ImageVault.repository.ImageMetadataRepository;
 import io.pedrohma07.ImageVault.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +28,9 @@ public class UserService {
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
     private final EncryptionService encryptionService;
+    private final UserSnapshotCache userSnapshotCache;
+    private final ImageMetadataRepository imageMetadataRepository;
+    private final ImageViewCache imageViewCache;
 
     public ResponseUserDTO createUser(CreateUserDTO createUserDTO) {
         log.debug("Starting user creation for email: {}", createUserDTO.email());
@@ -75,6 +79,7 @@ public class UserService {
         user.setName(updateUserDTO.name());
 
         User updatedUser = userRepository.save(user);
+        userSnapshotCache.evict(updatedUser.getId());
         log.info("User updated successfully with ID: {}", id);
         return userMapper.toResponseUserDTO(updatedUser);
     }
@@ -87,6 +92,9 @@ public class UserService {
             throw new ResourceNotFoundException("Usuário não encontrado com o ID: " + id);
         }
         userRepository.deleteById(uuid);
+        userSnapshotCache.evict(uuid);
+        // As imagens ficam até a purga (DeletedUserPurgeService); as públicas deixam de ser visíveis já
+        imageViewCache.evict(imageMetadataRepository.findPublicIdsByOwnerId(uuid));
         log.info("User deleted successfully with ID: {}", id);
     }
 
@@ -0,0 +1,99 @@
+package io.pedrohma07.ImageVault.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.pedrohma07.ImageVault.config.ReadReplicaRoutingDataSource;
+import io.pedrohma07.ImageVault.dto.auth.UserPrincipal;
+import io.pedrohma07.ImageVault.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Cache local de snapshots de usuário usado na autenticação das requisições.
+ * Em regime permanente a autenticação não faz nenhuma consulta ao banco; as entradas são
+ * invalidadas quando o usuário é atualizado ou removido.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserSnapshotCache implements InvalidatableCache {
+
+    public static final String TOPIC = "user";
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.cache.user-snapshot.max-size}")
+    private long maxSize;
+
+    @Value("${app.cache.user-snapshot.ttl}")
+    private Duration ttl;
+
+    private Cache<UUID, Optional<UserPrincipal>> snapshots;
+
+    @PostConstruct
+    public void init() {
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, snapshots, "userSnapshots");
+        cacheInvalidationBus.register(this);
+    }
+
+    // Usuários inexistentes/removidos também são cacheados (Optional vazio) para não martelar o banco.
+    public Optional<UserPrincipal> get(UUID userId) {
+        return snapshots.get(userId, id -> {
+            log.debug("Loading user snapshot for ID: {}", id);
+            // Sempre no primário: um papel/status desatualizado vindo de uma réplica ficaria no cache até o TTL
+            return ReadReplicaRoutingDataSource.onPrimary(() -> userRepository.findById(id).map(UserPrincipal::from));
+        });
+    }
+
+    public void put(UserPrincipal principal) {
+        snapshots.put(principal.id(), Optional.of(principal));
+    }
+
+    // Invalida imediatamente e novamente após o commit, evitando que uma leitura concorrente
+    // recoloque no cache o estado anterior à transação. Os demais nós são avisados pelo barramento.
+    public void evict(UUID userId) {
+        snapshots.invalidate(userId);
+        cacheInvalidationBus.publish(TOPIC, userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    snapshots.invalidate(userId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public String invalidationTopic() {
+        return TOPIC;
+    }
+
+    @Override
+    public void evictLocal(String id) {
+        snapshots.invalidate(UUID.fromString(id));
+    }
+
+    @Override
+    public void evictAllLocal() {
+        snapshots.invalidateAll();
+    }
+}
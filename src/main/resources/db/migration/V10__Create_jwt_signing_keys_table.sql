@@ -0,0 +1,11 @@
+-- Chaves assimétricas (ES256) usadas para assinar os JWTs. A chave privada fica cifrada pelo EncryptionService.
+CREATE TABLE dev.jwt_signing_keys (
+    kid VARCHAR(64) PRIMARY KEY,
+    algorithm VARCHAR(16) NOT NULL,
+    public_key TEXT NOT NULL,
+    private_key TEXT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_jwt_signing_keys_expires_at ON dev.jwt_signing_keys(expires_at);
@@ -0,0 +1,27 @@
+-- Access tokens revogados individualmente (logout), identificados pelo claim "jti"
+CREATE TABLE dev.revoked_tokens (
+    jti VARCHAR(64) PRIMARY KEY,
+    user_id UUID NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    CONSTRAINT fk_revoked_token_user
+        FOREIGN KEY(user_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON dev.revoked_tokens(expires_at);
+
+-- Tokens emitidos até not_before são inválidos (revogar todas as sessões)
+CREATE TABLE dev.user_token_cutoffs (
+    user_id UUID PRIMARY KEY,
+    not_before TIMESTAMP WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    CONSTRAINT fk_user_token_cutoff_user
+        FOREIGN KEY(user_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX idx_user_token_cutoffs_expires_at ON dev.user_token_cutoffs(expires_at);
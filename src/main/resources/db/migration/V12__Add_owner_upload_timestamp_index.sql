@@ -0,0 +1,6 @@
+-- Suporta a listagem por cursor (owner_id, upload_timestamp DESC, id) sem ordenação em memória.
+-- Substitui o índice simples em owner_id, que passa a ser prefixo deste.
+CREATE INDEX idx_image_metadata_owner_upload_timestamp_id
+    ON dev.image_metadata(owner_id, upload_timestamp DESC, id);
+
+DROP INDEX IF EXISTS dev.idx_image_metadata_owner_id;
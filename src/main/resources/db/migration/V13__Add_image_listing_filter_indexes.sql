@@ -0,0 +1,20 @@
+-- Índices da listagem com filtros/ordenação. Todos começam por owner_id (toda consulta é por dono);
+-- a segunda coluna atende a ordenação escolhida ou o filtro mais seletivo, e id é o desempate estável.
+-- Ordenação por data e filtros de intervalo de data usam idx_image_metadata_owner_upload_timestamp_id (V12).
+
+-- Ordenação por tamanho e filtro por faixa de tamanho
+CREATE INDEX idx_image_metadata_owner_size_id
+    ON dev.image_metadata(owner_id, size, id);
+
+-- Ordenação por nome
+CREATE INDEX idx_image_metadata_owner_file_name_id
+    ON dev.image_metadata(owner_id, file_name, id);
+
+-- Filtro por tipo de conteúdo, na ordenação padrão (mais recentes primeiro)
+CREATE INDEX idx_image_metadata_owner_content_type_upload_timestamp
+    ON dev.image_metadata(owner_id, content_type, upload_timestamp DESC, id);
+
+-- Imagens públicas são minoria: índice parcial pequeno para o filtro visibility = PUBLIC
+CREATE INDEX idx_image_metadata_owner_public_upload_timestamp
+    ON dev.image_metadata(owner_id, upload_timestamp DESC, id)
+    WHERE visibility = 'PUBLIC';
@@ -0,0 +1,8 @@
+-- Busca por nome de arquivo. As extensões ficam em public para que similarity()/word_similarity() e os operadores
+-- % e <% resolvam pelo search_path padrão; btree_gin permite owner_id (uuid) como primeira coluna do índice GIN.
+CREATE EXTENSION IF NOT EXISTS pg_trgm WITH SCHEMA public;
+CREATE EXTENSION IF NOT EXISTS btree_gin WITH SCHEMA public;
+
+-- O GIN combina o dono e os trigramas do nome: só as imagens do usuário com trigramas em comum são lidas
+CREATE INDEX idx_image_metadata_owner_file_name_trgm
+    ON dev.image_metadata USING gin (owner_id, file_name public.gin_trgm_ops);
@@ -0,0 +1,161 @@
+CREATE TABLE dev.albums (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    owner_id UUID NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    -- Mantidos pelos triggers de dev.album_images (nunca escritos pela aplicação)
+    image_count INT NOT NULL DEFAULT 0,
+    cover_image_id UUID,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_albums_owner
+        FOREIGN KEY(owner_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_albums_cover_image
+        FOREIGN KEY(cover_image_id)
+        REFERENCES dev.image_metadata(id)
+        ON DELETE SET NULL
+);
+
+CREATE INDEX idx_albums_owner_created_at ON dev.albums(owner_id, created_at DESC, id);
+
+-- image_uploaded_at é cópia de image_metadata.upload_timestamp (imutável): a listagem do álbum usa o mesmo
+-- keyset (upload_timestamp DESC, id) da listagem de imagens, percorrendo só este índice.
+CREATE TABLE dev.album_images (
+    album_id UUID NOT NULL,
+    image_id UUID NOT NULL,
+    image_uploaded_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    added_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (album_id, image_id),
+    CONSTRAINT fk_album_images_album
+        FOREIGN KEY(album_id)
+        REFERENCES dev.albums(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_album_images_image
+        FOREIGN KEY(image_id)
+        REFERENCES dev.image_metadata(id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX idx_album_images_album_uploaded_at ON dev.album_images(album_id, image_uploaded_at DESC, image_id);
+CREATE INDEX idx_album_images_image_id ON dev.album_images(image_id);
+
+CREATE TABLE dev.tags (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    owner_id UUID NOT NULL,
+    name VARCHAR(100) NOT NULL,
+    -- Mantido pelos triggers de dev.image_tags
+    image_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uk_tags_owner_name UNIQUE (owner_id, name),
+    CONSTRAINT fk_tags_owner
+        FOREIGN KEY(owner_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE
+);
+
+CREATE TABLE dev.image_tags (
+    tag_id UUID NOT NULL,
+    image_id UUID NOT NULL,
+    image_uploaded_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    PRIMARY KEY (tag_id, image_id),
+    CONSTRAINT fk_image_tags_tag
+        FOREIGN KEY(tag_id)
+        REFERENCES dev.tags(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_image_tags_image
+        FOREIGN KEY(image_id)
+        REFERENCES dev.image_metadata(id)
+        ON DELETE CASCADE
+);
+
+CREATE INDEX idx_image_tags_tag_uploaded_at ON dev.image_tags(tag_id, image_uploaded_at DESC, image_id);
+CREATE INDEX idx_image_tags_image_id ON dev.image_tags(image_id);
+
+-- Contadores e capa mantidos incrementalmente em qualquer caminho de escrita (inclusive ON DELETE CASCADE da imagem).
+-- Triggers por comando com tabelas de transição: um UPDATE por álbum/tag afetado, não um por linha.
+CREATE OR REPLACE FUNCTION dev.trigger_count_album_images_added()
+RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE dev.albums a
+     SET image_count = a.image_count + c.added,
+         cover_image_id = COALESCE(a.cover_image_id, c.newest_image_id)
+    FROM (SELECT album_id, count(*) AS added,
+                 (array_agg(image_id ORDER BY image_uploaded_at DESC, image_id))[1] AS newest_image_id
+            FROM added_rows
+           GROUP BY album_id) c
+   WHERE a.id = c.album_id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Se a capa saiu do álbum, a imagem mais recente restante assume (lida pelo índice do álbum)
+CREATE OR REPLACE FUNCTION dev.trigger_count_album_images_removed()
+RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE dev.albums a
+     SET image_count = a.image_count - c.removed,
+         cover_image_id = CASE
+             WHEN a.cover_image_id IS NULL OR a.cover_image_id = ANY(c.removed_ids) THEN
+                 (SELECT m.image_id FROM dev.album_images m
+                   WHERE m.album_id = a.id
+                   ORDER BY m.image_uploaded_at DESC, m.image_id
+                   LIMIT 1)
+             ELSE a.cover_image_id
+         END
+    FROM (SELECT album_id, count(*) AS removed, array_agg(image_id) AS removed_ids
+            FROM removed_rows
+           GROUP BY album_id) c
+   WHERE a.id = c.album_id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER count_album_images_added
+AFTER INSERT ON dev.album_images
+REFERENCING NEW TABLE AS added_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION dev.trigger_count_album_images_added();
+
+CREATE TRIGGER count_album_images_removed
+AFTER DELETE ON dev.album_images
+REFERENCING OLD TABLE AS removed_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION dev.trigger_count_album_images_removed();
+
+CREATE OR REPLACE FUNCTION dev.trigger_count_image_tags_added()
+RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE dev.tags t
+     SET image_count = t.image_count + c.added
+    FROM (SELECT tag_id, count(*) AS added FROM added_rows GROUP BY tag_id) c
+   WHERE t.id = c.tag_id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION dev.trigger_count_image_tags_removed()
+RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE dev.tags t
+     SET image_count = t.image_count - c.removed
+    FROM (SELECT tag_id, count(*) AS removed FROM removed_rows GROUP BY tag_id) c
+   WHERE t.id = c.tag_id;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER count_image_tags_added
+AFTER INSERT ON dev.image_tags
+REFERENCING NEW TABLE AS added_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION dev.trigger_count_image_tags_added();
+
+CREATE TRIGGER count_image_tags_removed
+AFTER DELETE ON dev.image_tags
+REFERENCING OLD TABLE AS removed_rows
+FOR EACH STATEMENT
+EXECUTE FUNCTION dev.trigger_count_image_tags_removed();
@@ -0,0 +1,21 @@
+-- Uso de armazenamento por usuário, atualizado na mesma transação dos uploads/remoções.
+-- A checagem de cota lê/atualiza uma única linha em vez de somar image_metadata.
+CREATE TABLE dev.user_usage (
+    user_id UUID PRIMARY KEY,
+    bytes_used BIGINT NOT NULL DEFAULT 0,
+    image_count INT NOT NULL DEFAULT 0,
+    quota_bytes BIGINT, -- nulo = cota padrão (app.quota.default-bytes)
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    reconciled_at TIMESTAMP WITH TIME ZONE,
+
+    CONSTRAINT fk_user_usage_user
+        FOREIGN KEY(user_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE
+);
+
+INSERT INTO dev.user_usage (user_id, bytes_used, image_count, reconciled_at)
+SELECT u.id, COALESCE(SUM(i.size), 0), COUNT(i.id), CURRENT_TIMESTAMP
+  FROM dev.users u
+  LEFT JOIN dev.image_metadata i ON i.owner_id = u.id
+ GROUP BY u.id;
@@ -0,0 +1,168 @@
+-- Migração online de dev.image_metadata para particionamento declarativo mensal por upload_timestamp.
+-- Etapas:
+--   1. (esta migração) cria a tabela particionada "sombra", as partições e o trigger que espelha toda escrita
+--      da tabela atual nela;
+--   2. CALL dev.backfill_image_metadata_partitioned(); copia as linhas existentes em lotes, com commit por lote
+--      (retomável, pode rodar com a aplicação no ar);
+--   3. db/partitioning/cutover.sql troca as tabelas sob um lock curto.
+-- A PK e as unicidades precisam incluir a chave de partição; storage_key deixa de ser globalmente único
+-- (as chaves contêm um UUID aleatório) e as FKs que apontam para a imagem passam a usar (id, upload_timestamp).
+
+CREATE TABLE dev.image_metadata_partitioned (
+    LIKE dev.image_metadata INCLUDING DEFAULTS,
+    CONSTRAINT pk_image_metadata_partitioned PRIMARY KEY (id, upload_timestamp),
+    CONSTRAINT fk_image_metadata_partitioned_owner
+        FOREIGN KEY(owner_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE
+) PARTITION BY RANGE (upload_timestamp);
+
+-- Índices equivalentes aos da tabela atual (V6, V12, V13, V14); criados em cada partição automaticamente
+CREATE INDEX idx_image_metadata_p_storage_key_c ON dev.image_metadata_partitioned(storage_key COLLATE "C");
+CREATE INDEX idx_image_metadata_p_thumbnail_storage_key_c ON dev.image_metadata_partitioned(thumbnail_storage_key COLLATE "C")
+    WHERE thumbnail_storage_key IS NOT NULL;
+CREATE INDEX idx_image_metadata_p_owner_upload_timestamp_id
+    ON dev.image_metadata_partitioned(owner_id, upload_timestamp DESC, id);
+CREATE INDEX idx_image_metadata_p_owner_size_id ON dev.image_metadata_partitioned(owner_id, size, id);
+CREATE INDEX idx_image_metadata_p_owner_file_name_id ON dev.image_metadata_partitioned(owner_id, file_name, id);
+CREATE INDEX idx_image_metadata_p_owner_content_type_upload_timestamp
+    ON dev.image_metadata_partitioned(owner_id, content_type, upload_timestamp DESC, id);
+CREATE INDEX idx_image_metadata_p_owner_public_upload_timestamp
+    ON dev.image_metadata_partitioned(owner_id, upload_timestamp DESC, id)
+    WHERE visibility = 'PUBLIC';
+CREATE INDEX idx_image_metadata_p_owner_file_name_trgm
+    ON dev.image_metadata_partitioned USING gin (owner_id, file_name public.gin_trgm_ops);
+
+-- Recebe linhas fora das partições existentes; normalmente vazia (as partições são criadas com antecedência)
+CREATE TABLE dev.image_metadata_default PARTITION OF dev.image_metadata_partitioned DEFAULT;
+
+-- Cria as partições mensais (UTC) que faltam, do mês de p_from até p_months_ahead meses à frente.
+-- Linhas que caíram na partição default são movidas antes do ATTACH. Idempotente; retorna quantas criou.
+CREATE OR REPLACE FUNCTION dev.create_image_metadata_partitions(p_from TIMESTAMPTZ, p_months_ahead INT)
+RETURNS INT AS $$
+DECLARE
+  v_month TIMESTAMP := date_trunc('month', p_from AT TIME ZONE 'UTC');
+  v_last TIMESTAMP := date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => p_months_ahead);
+  v_start TIMESTAMPTZ;
+  v_end TIMESTAMPTZ;
+  v_name TEXT;
+  v_created INT := 0;
+BEGIN
+  WHILE v_month <= v_last LOOP
+    v_name := 'image_metadata_y' || to_char(v_month, 'YYYY') || 'm' || to_char(v_month, 'MM');
+    IF to_regclass('dev.' || v_name) IS NULL THEN
+      v_start := v_month AT TIME ZONE 'UTC';
+      v_end := (v_month + INTERVAL '1 month') AT TIME ZONE 'UTC';
+
+      EXECUTE format('CREATE TABLE dev.%I (LIKE dev.image_metadata_partitioned INCLUDING DEFAULTS)', v_name);
+      -- A constraint permite ao ATTACH validar sem varrer a tabela
+      EXECUTE format('ALTER TABLE dev.%I ADD CONSTRAINT %I CHECK (upload_timestamp >= %L AND upload_timestamp < %L)',
+                     v_name, v_name || '_range', v_start, v_end);
+      EXECUTE format('WITH moved AS (DELETE FROM dev.image_metadata_default
+                                      WHERE upload_timestamp >= %L AND upload_timestamp < %L RETURNING *)
+                      INSERT INTO dev.%I SELECT * FROM moved', v_start, v_end, v_name);
+      EXECUTE format('ALTER TABLE dev.image_metadata_partitioned ATTACH PARTITION dev.%I FOR VALUES FROM (%L) TO (%L)',
+                     v_name, v_start, v_end);
+      EXECUTE format('ALTER TABLE dev.%I DROP CONSTRAINT %I', v_name, v_name || '_range');
+      v_created := v_created + 1;
+    END IF;
+    v_month := v_month + INTERVAL '1 month';
+  END LOOP;
+  RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT dev.create_image_metadata_partitions(COALESCE((SELECT min(upload_timestamp) FROM dev.image_metadata), now()), 3);
+
+-- Espelha na tabela particionada toda escrita feita na tabela atual enquanto a migração não termina
+CREATE OR REPLACE FUNCTION dev.trigger_sync_image_metadata_partitioned()
+RETURNS TRIGGER AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    DELETE FROM dev.image_metadata_partitioned WHERE id = OLD.id AND upload_timestamp = OLD.upload_timestamp;
+    RETURN OLD;
+  END IF;
+
+  INSERT INTO dev.image_metadata_partitioned
+         (id, file_name, content_type, size, storage_key, visibility, owner_id, upload_timestamp, thumbnail_storage_key)
+  VALUES (NEW.id, NEW.file_name, NEW.content_type, NEW.size, NEW.storage_key, NEW.visibility, NEW.owner_id,
+          NEW.upload_timestamp, NEW.thumbnail_storage_key)
+  ON CONFLICT (id, upload_timestamp) DO UPDATE
+     SET file_name = EXCLUDED.file_name,
+         content_type = EXCLUDED.content_type,
+         size = EXCLUDED.size,
+         storage_key = EXCLUDED.storage_key,
+         visibility = EXCLUDED.visibility,
+         owner_id = EXCLUDED.owner_id,
+         thumbnail_storage_key = EXCLUDED.thumbnail_storage_key;
+  RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER sync_image_metadata_partitioned
+AFTER INSERT OR UPDATE OR DELETE ON dev.image_metadata
+FOR EACH ROW
+EXECUTE FUNCTION dev.trigger_sync_image_metadata_partitioned();
+
+-- Progresso do backfill (linha única), para que ele possa ser interrompido e retomado
+CREATE TABLE dev.image_metadata_backfill_state (
+    id INT PRIMARY KEY CHECK (id = 1),
+    last_id UUID,
+    copied BIGINT NOT NULL DEFAULT 0,
+    completed_at TIMESTAMP WITH TIME ZONE
+);
+
+INSERT INTO dev.image_metadata_backfill_state (id) VALUES (1);
+
+-- Copia as linhas existentes em ordem de id (pela PK), um lote por transação.
+-- FOR SHARE garante que a linha ainda existe ao ser copiada: uma remoção concorrente ou já terminou (e a linha
+-- é ignorada) ou espera o commit do lote (e o trigger a remove da tabela particionada em seguida).
+-- Uso: CALL dev.backfill_image_metadata_partitioned();  (fora de um bloco BEGIN, para permitir os commits)
+CREATE OR REPLACE PROCEDURE dev.backfill_image_metadata_partitioned(p_batch_size INT DEFAULT 5000,
+                                                                   p_pause INTERVAL DEFAULT '50 milliseconds')
+AS $$
+DECLARE
+  v_last_id UUID;
+  v_rows INT;
+  v_batch_last_id UUID;
+BEGIN
+  SELECT last_id INTO v_last_id FROM dev.image_metadata_backfill_state WHERE id = 1;
+
+  LOOP
+    WITH batch AS (
+        SELECT * FROM dev.image_metadata
+         WHERE v_last_id IS NULL OR id > v_last_id
+         ORDER BY id
+         LIMIT p_batch_size
+           FOR SHARE
+    ), copied AS (
+        INSERT INTO dev.image_metadata_partitioned
+               (id, file_name, content_type, size, storage_key, visibility, owner_id, upload_timestamp, thumbnail_storage_key)
+        SELECT id, file_name, content_type, size, storage_key, visibility, owner_id, upload_timestamp, thumbnail_storage_key
+          FROM batch
+        ON CONFLICT (id, upload_timestamp) DO NOTHING
+    )
+    SELECT count(*), (array_agg(id ORDER BY id DESC))[1] INTO v_rows, v_batch_last_id FROM batch;
+
+    EXIT WHEN v_rows = 0;
+
+    v_last_id := v_batch_last_id;
+    UPDATE dev.image_metadata_backfill_state SET last_id = v_last_id, copied = copied + v_rows WHERE id = 1;
+    COMMIT;
+    PERFORM pg_sleep(extract(epoch FROM p_pause));
+  END LOOP;
+
+  UPDATE dev.image_metadata_backfill_state SET completed_at = now() WHERE id = 1;
+  COMMIT;
+END;
+$$ LANGUAGE plpgsql;
+
+-- As associações que apontam para a imagem precisam da chave de partição para a FK composta do cutover
+ALTER TABLE dev.thumbnail_pack_entries ADD COLUMN image_uploaded_at TIMESTAMP WITH TIME ZONE;
+
+UPDATE dev.thumbnail_pack_entries e
+   SET image_uploaded_at = i.upload_timestamp
+  FROM dev.image_metadata i
+ WHERE i.id = e.image_id;
+
+ALTER TABLE dev.thumbnail_pack_entries ALTER COLUMN image_uploaded_at SET NOT NULL;
@@ -0,0 +1,9 @@
+-- Feed público (todas as imagens PUBLIC, mais recentes primeiro): índice parcial sem owner_id, pequeno
+-- porque públicas são minoria. Também na tabela particionada (V17), para sobreviver ao cutover.
+CREATE INDEX idx_image_metadata_public_upload_timestamp
+    ON dev.image_metadata(upload_timestamp DESC, id)
+    WHERE visibility = 'PUBLIC';
+
+CREATE INDEX idx_image_metadata_p_public_upload_timestamp
+    ON dev.image_metadata_partitioned(upload_timestamp DESC, id)
+    WHERE visibility = 'PUBLIC';
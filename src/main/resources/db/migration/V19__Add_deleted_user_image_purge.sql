@@ -0,0 +1,7 @@
+-- Purga das imagens de usuários removidos (soft delete): images_purged_at marca quem já não tem imagens,
+-- e o índice parcial mantém pequena a busca pelos pendentes mesmo com muitos usuários removidos.
+ALTER TABLE dev.users ADD COLUMN images_purged_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX idx_users_pending_image_purge
+    ON dev.users(deleted_at)
+    WHERE deleted_at IS NOT NULL AND images_purged_at IS NULL;
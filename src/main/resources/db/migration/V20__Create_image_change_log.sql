@@ -0,0 +1,47 @@
+-- Sincronização incremental dos clientes: cada criação/alteração/remoção de imagem recebe o próximo número da
+-- sequência do usuário. O log guarda só a última mudança de cada imagem, então cresce com o tamanho da
+-- biblioteca, não com o número de edições; remoções (DELETED) viram tombstones, compactados depois de um tempo.
+CREATE TABLE dev.image_change_sequences (
+    user_id UUID PRIMARY KEY,
+    last_seq BIGINT NOT NULL DEFAULT 0,
+    -- Maior seq de tombstone já compactado: clientes com "since" menor precisam de uma sincronização completa
+    compacted_seq BIGINT NOT NULL DEFAULT 0,
+
+    CONSTRAINT fk_image_change_sequences_user
+        FOREIGN KEY(user_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE
+);
+
+-- Sem FK para image_metadata: o tombstone sobrevive à imagem
+CREATE TABLE dev.image_change_log (
+    user_id UUID NOT NULL,
+    image_id UUID NOT NULL,
+    seq BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL CHECK (change_type IN ('CREATED', 'UPDATED', 'DELETED')),
+    changed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (user_id, image_id),
+    CONSTRAINT fk_image_change_log_user
+        FOREIGN KEY(user_id)
+        REFERENCES dev.users(id)
+        ON DELETE CASCADE
+);
+
+-- Leitura das mudanças após "since"
+CREATE UNIQUE INDEX idx_image_change_log_user_seq ON dev.image_change_log(user_id, seq);
+
+-- Compactação: só os tombstones, em ordem de idade
+CREATE INDEX idx_image_change_log_tombstones_changed_at
+    ON dev.image_change_log(changed_at)
+    WHERE change_type = 'DELETED';
+
+-- Imagens existentes entram como criadas, para que clientes partindo de since=0 recebam a biblioteca inteira
+INSERT INTO dev.image_change_log (user_id, image_id, seq, change_type, changed_at)
+SELECT owner_id, id, row_number() OVER (PARTITION BY owner_id ORDER BY upload_timestamp, id), 'CREATED', upload_timestamp
+  FROM dev.image_metadata;
+
+INSERT INTO dev.image_change_sequences (user_id, last_seq)
+SELECT user_id, max(seq)
+  FROM dev.image_change_log
+ GROUP BY user_id;
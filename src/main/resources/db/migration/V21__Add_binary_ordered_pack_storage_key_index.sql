@@ -0,0 +1,3 @@
+-- O reconciliador lê as chaves em páginas por keyset em ordem binária; os packs também precisam de um
+-- índice COLLATE "C" para que cada página não ordene a tabela inteira (ver V6).
+CREATE INDEX idx_thumbnail_packs_storage_key_c ON dev.thumbnail_packs(storage_key COLLATE "C");
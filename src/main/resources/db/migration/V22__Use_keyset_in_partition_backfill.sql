@@ -0,0 +1,57 @@
+-- O predicado "v_last_id IS NULL OR id > v_last_id" da V17 não vira condição de índice: cada lote lia
+-- image_metadata inteira pela PK. O primeiro lote agora roda sem predicado e os seguintes com "id > v_last_id",
+-- que o planner resolve como range scan em image_metadata_pkey.
+CREATE OR REPLACE PROCEDURE dev.backfill_image_metadata_partitioned(p_batch_size INT DEFAULT 5000,
+                                                                   p_pause INTERVAL DEFAULT '50 milliseconds')
+AS $$
+DECLARE
+  v_last_id UUID;
+  v_rows INT;
+  v_batch_last_id UUID;
+BEGIN
+  SELECT last_id INTO v_last_id FROM dev.image_metadata_backfill_state WHERE id = 1;
+
+  LOOP
+    IF v_last_id IS NULL THEN
+      WITH batch AS (
+          SELECT * FROM dev.image_metadata
+           ORDER BY id
+           LIMIT p_batch_size
+             FOR SHARE
+      ), copied AS (
+          INSERT INTO dev.image_metadata_partitioned
+                 (id, file_name, content_type, size, storage_key, visibility, owner_id, upload_timestamp, thumbnail_storage_key)
+          SELECT id, file_name, content_type, size, storage_key, visibility, owner_id, upload_timestamp, thumbnail_storage_key
+            FROM batch
+          ON CONFLICT (id, upload_timestamp) DO NOTHING
+      )
+      SELECT count(*), (array_agg(id ORDER BY id DESC))[1] INTO v_rows, v_batch_last_id FROM batch;
+    ELSE
+      WITH batch AS (
+          SELECT * FROM dev.image_metadata
+           WHERE id > v_last_id
+           ORDER BY id
+           LIMIT p_batch_size
+             FOR SHARE
+      ), copied AS (
+          INSERT INTO dev.image_metadata_partitioned
+                 (id, file_name, content_type, size, storage_key, visibility, owner_id, upload_timestamp, thumbnail_storage_key)
+          SELECT id, file_name, content_type, size, storage_key, visibility, owner_id, upload_timestamp, thumbnail_storage_key
+            FROM batch
+          ON CONFLICT (id, upload_timestamp) DO NOTHING
+      )
+      SELECT count(*), (array_agg(id ORDER BY id DESC))[1] INTO v_rows, v_batch_last_id FROM batch;
+    END IF;
+
+    EXIT WHEN v_rows = 0;
+
+    v_last_id := v_batch_last_id;
+    UPDATE dev.image_metadata_backfill_state SET last_id = v_last_id, copied = copied + v_rows WHERE id = 1;
+    COMMIT;
+    PERFORM pg_sleep(extract(epoch FROM p_pause));
+  END LOOP;
+
+  UPDATE dev.image_metadata_backfill_state SET completed_at = now() WHERE id = 1;
+  COMMIT;
+END;
+$$ LANGUAGE plpgsql;
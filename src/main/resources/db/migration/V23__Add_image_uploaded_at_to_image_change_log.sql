@@ -0,0 +1,9 @@
+-- Chave de partição da imagem no log de mudanças, como em album_images e image_tags: o JOIN de findChangesSince
+-- com image_metadata passa a casar (id, upload_timestamp) e, após o cutover (V17), lê só a partição da imagem.
+-- Nulo apenas nos tombstones de imagens já removidas antes desta migração (o JOIN ignora os tombstones).
+ALTER TABLE dev.image_change_log ADD COLUMN image_uploaded_at TIMESTAMP WITH TIME ZONE;
+
+UPDATE dev.image_change_log c
+   SET image_uploaded_at = i.upload_timestamp
+  FROM dev.image_metadata i
+ WHERE i.id = c.image_id;
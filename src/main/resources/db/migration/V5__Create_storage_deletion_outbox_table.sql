@@ -0,0 +1,10 @@
+CREATE TABLE dev.storage_deletion_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    storage_key VARCHAR(512) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1024),
+    next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_storage_deletion_outbox_next_attempt_at ON dev.storage_deletion_outbox(next_attempt_at);
@@ -0,0 +1,6 @@
+-- Índices em ordem binária (COLLATE "C"), a mesma ordem em que o S3 lista as chaves (UTF-8).
+-- Permitem ao reconciliador ler as chaves já ordenadas, sem sort em memória/disco.
+CREATE INDEX idx_image_metadata_storage_key_c ON dev.image_metadata(storage_key COLLATE "C");
+
+CREATE INDEX idx_image_metadata_thumbnail_storage_key_c ON dev.image_metadata(thumbnail_storage_key COLLATE "C")
+    WHERE thumbnail_storage_key IS NOT NULL;
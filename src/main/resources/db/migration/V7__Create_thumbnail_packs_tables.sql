@@ -0,0 +1,38 @@
+CREATE TABLE dev.thumbnail_packs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    storage_key VARCHAR(512) NOT NULL UNIQUE,
+    total_bytes BIGINT NOT NULL,
+    live_bytes BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE dev.thumbnail_pack_entries (
+    image_id UUID PRIMARY KEY,
+    pack_id UUID NOT NULL,
+    byte_offset BIGINT NOT NULL,
+    byte_length INT NOT NULL,
+
+    CONSTRAINT fk_thumbnail_pack_entry_image
+        FOREIGN KEY(image_id)
+        REFERENCES dev.image_metadata(id)
+        ON DELETE CASCADE,
+    CONSTRAINT fk_thumbnail_pack_entry_pack
+        FOREIGN KEY(pack_id)
+        REFERENCES dev.thumbnail_packs(id)
+);
+
+CREATE INDEX idx_thumbnail_pack_entries_pack_id ON dev.thumbnail_pack_entries(pack_id);
+
+-- Mantém live_bytes atualizado em qualquer caminho de exclusão (inclusive ON DELETE CASCADE da imagem)
+CREATE OR REPLACE FUNCTION dev.trigger_release_thumbnail_pack_bytes()
+RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE dev.thumbnail_packs SET live_bytes = live_bytes - OLD.byte_length WHERE id = OLD.pack_id;
+  RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER release_thumbnail_pack_bytes
+AFTER DELETE ON dev.thumbnail_pack_entries
+FOR EACH ROW
+EXECUTE FUNCTION dev.trigger_release_thumbnail_pack_bytes();
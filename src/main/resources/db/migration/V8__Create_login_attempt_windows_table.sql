@@ -0,0 +1,10 @@
+-- Contadores de tentativas de login por janela fixa, compartilhados entre os nós da API
+CREATE TABLE dev.login_attempt_windows (
+    bucket_key VARCHAR(320) NOT NULL,
+    window_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (bucket_key, window_start)
+);
+
+CREATE INDEX idx_login_attempt_windows_window_start ON dev.login_attempt_windows(window_start);
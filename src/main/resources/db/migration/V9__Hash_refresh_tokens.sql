@@ -0,0 +1,19 @@
+-- Guarda apenas o SHA-256 do refresh token (32 bytes fixos) em vez do JWT completo
+ALTER TABLE dev.refresh_tokens ADD COLUMN token_hash BYTEA;
+
+UPDATE dev.refresh_tokens SET token_hash = digest(token, 'sha256');
+
+-- Mantém apenas o token mais recente de cada usuário antes de criar a restrição única
+DELETE FROM dev.refresh_tokens rt
+ USING dev.refresh_tokens newer
+ WHERE rt.user_id = newer.user_id
+   AND (rt.expiry_date, rt.id) < (newer.expiry_date, newer.id);
+
+ALTER TABLE dev.refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE dev.refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
+ALTER TABLE dev.refresh_tokens ADD CONSTRAINT uk_refresh_tokens_user_id UNIQUE (user_id);
+
+DROP INDEX IF EXISTS dev.idx_refresh_token_token;
+ALTER TABLE dev.refresh_tokens DROP COLUMN token;
+
+CREATE INDEX idx_refresh_tokens_expiry_date ON dev.refresh_tokens(expiry_date);
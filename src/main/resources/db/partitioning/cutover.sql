@@ -0,0 +1,59 @@
+-- Troca dev.image_metadata pela tabela particionada (V17). Executar manualmente, depois que
+-- dev.image_metadata_backfill_state.completed_at estiver preenchido:
+--   psql -v ON_ERROR_STOP=1 -f cutover.sql
+-- A contagem das duas tabelas roda antes do lock; sob o lock exclusivo ficam só a checagem de completed_at e as
+-- trocas de nome/FK, que não leem as tabelas. A tabela antiga fica como dev.image_metadata_legacy para rollback
+-- e pode ser removida depois.
+
+-- Uma única instrução, então as duas contagens usam o mesmo snapshot; o trigger de sincronização mantém as
+-- tabelas iguais entre esta checagem e o lock.
+DO $$
+DECLARE
+  v_legacy BIGINT;
+  v_partitioned BIGINT;
+BEGIN
+  SELECT (SELECT count(*) FROM dev.image_metadata), (SELECT count(*) FROM dev.image_metadata_partitioned)
+    INTO v_legacy, v_partitioned;
+  IF v_legacy <> v_partitioned THEN
+    RAISE EXCEPTION 'Row count mismatch: % legacy vs % partitioned', v_legacy, v_partitioned;
+  END IF;
+END $$;
+
+BEGIN;
+
+SET LOCAL lock_timeout = '10s';
+LOCK TABLE dev.image_metadata, dev.image_metadata_partitioned IN ACCESS EXCLUSIVE MODE;
+
+DO $$
+BEGIN
+  IF (SELECT completed_at FROM dev.image_metadata_backfill_state WHERE id = 1) IS NULL THEN
+    RAISE EXCEPTION 'Backfill not completed. Run CALL dev.backfill_image_metadata_partitioned() first.';
+  END IF;
+END $$;
+
+DROP TRIGGER sync_image_metadata_partitioned ON dev.image_metadata;
+
+-- FKs passam a apontar para (id, upload_timestamp); a capa do álbum perde a FK e segue mantida pelos triggers
+-- de album_images (a capa é sempre uma imagem do álbum, removida por cascata junto com a associação).
+ALTER TABLE dev.thumbnail_pack_entries DROP CONSTRAINT fk_thumbnail_pack_entry_image;
+ALTER TABLE dev.album_images DROP CONSTRAINT fk_album_images_image;
+ALTER TABLE dev.image_tags DROP CONSTRAINT fk_image_tags_image;
+ALTER TABLE dev.albums DROP CONSTRAINT fk_albums_cover_image;
+
+ALTER TABLE dev.image_metadata RENAME TO image_metadata_legacy;
+ALTER TABLE dev.image_metadata_partitioned RENAME TO image_metadata;
+
+-- NOT VALID: as linhas existentes já são consistentes; a validação roda depois, sem lock exclusivo
+ALTER TABLE dev.thumbnail_pack_entries ADD CONSTRAINT fk_thumbnail_pack_entry_image
+    FOREIGN KEY (image_id, image_uploaded_at) REFERENCES dev.image_metadata(id, upload_timestamp) ON DELETE CASCADE NOT VALID;
+ALTER TABLE dev.album_images ADD CONSTRAINT fk_album_images_image
+    FOREIGN KEY (image_id, image_uploaded_at) REFERENCES dev.image_metadata(id, upload_timestamp) ON DELETE CASCADE NOT VALID;
+ALTER TABLE dev.image_tags ADD CONSTRAINT fk_image_tags_image
+    FOREIGN KEY (image_id, image_uploaded_at) REFERENCES dev.image_metadata(id, upload_timestamp) ON DELETE CASCADE NOT VALID;
+
+COMMIT;
+
+ALTER TABLE dev.thumbnail_pack_entries VALIDATE CONSTRAINT fk_thumbnail_pack_entry_image;
+ALTER TABLE dev.album_images VALIDATE CONSTRAINT fk_album_images_image;
+ALTER TABLE dev.image_tags VALIDATE CONSTRAINT fk_image_tags_image;
+ANALYZE dev.image_metadata;
@@ -0,0 +1,108 @@
+package io.pedrohma07.ImageVault.benchmark;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.pedrohma07.ImageVault.dto.auth.VerifiedToken;
+import io.pedrohma07.ImageVault.model.User;
+import io.pedrohma07.ImageVault.service.JwtKeyService;
+import io.pedrohma07.ImageVault.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de CPU da autenticação por requisição: caminho antigo (chave recriada e três parses por requisição)
+ * versus o parse único, com e sem o cache de tokens verificados. Os dois lados usam o mesmo token ES256, então
+ * a diferença medida é só a do parse único e do cache, não a troca de algoritmo.
+ * Execução: mvn test-compile e rode o main desta classe com o classpath de teste.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+    private String secretKey;
+    private String token;
+    private byte[] encodedPublicKey;
+    private JwtService cachedJwtService;
+    private JwtService uncachedJwtService;
+    private JwtKeyService jwtKeyService;
+
+    @Setup
+    public void setup() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        secretKey = Base64.getEncoder().encodeToString(secret);
+
+        jwtKeyService = new JwtKeyService(null, null, null, null);
+        ReflectionTestUtils.setField(jwtKeyService, "keyStore", "ephemeral");
+        ReflectionTestUtils.setField(jwtKeyService, "rotationInterval", Duration.ofDays(30));
+        ReflectionTestUtils.setField(jwtKeyService, "publishDelay", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(jwtKeyService, "refreshExpiration", 604_800_000L);
+        jwtKeyService.init();
+
+        cachedJwtService = newJwtService(100_000);
+        uncachedJwtService = newJwtService(0);
+        token = cachedJwtService.generateToken(User.builder().email("bench@imagevault.io").build());
+        encodedPublicKey = jwtKeyService.currentSigningKey().publicKey().getEncoded();
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        // Reproduz o fluxo anterior do JwtAuthFilter: extractUsername + isTokenValid (extractUsername + extractExpiration),
+        // cada um recriando a chave e o parser
+        String username = legacyClaims().getSubject();
+        boolean sameUser = legacyClaims().getSubject().equals(username);
+        return sameUser && !legacyClaims().getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public VerifiedToken singleParse() {
+        return uncachedJwtService.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken singleParseWithVerifiedCache() {
+        return cachedJwtService.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtValidationBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private Claims legacyClaims() {
+        try {
+            PublicKey key = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(encodedPublicKey));
+            return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JwtService newJwtService(long cacheSize) {
+        JwtService jwtService = new JwtService(jwtKeyService);
+        ReflectionTestUtils.setField(jwtService, "secretKey", secretKey);
+        ReflectionTestUtils.setField(jwtService, "legacyHmacEnabled", true);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshExpiration", 604_800_000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxSize", cacheSize);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheMaxTtl", Duration.ofMinutes(5));
+        jwtService.init();
+        return jwtService;
+    }
+}
@@ -0,0 +1,109 @@
+package io.pedrohma07.ImageVault.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Garante que cada combinação suportada de filtro/ordenação da listagem de imagens usa um índice.
+ * Com a tabela vazia o planner sempre preferiria seq scan, então ele é desabilitado na transação do teste:
+ * se nenhum índice atender a consulta, o plano continua sendo um seq scan e o teste falha.
+ * Vale para o schema anterior ao cutover do particionamento (V17, db/partitioning/cutover.sql): os nomes esperados
+ * são os índices de dev.image_metadata não particionada, e a ordem sem nó Sort também. Depois do cutover o plano
+ * lê os índices de cada partição (nomes gerados) por um Merge Append, e o teste é ignorado.
+ */
+@SpringBootTest
+@Transactional
+class ImageMetadataIndexUsageTest {
+
+    private static final String OWNER = "'00000000-0000-0000-0000-000000000001'";
+    private static final String SELECT = "SELECT id, file_name, content_type, size, visibility, owner_id, upload_timestamp "
+            + "FROM dev.image_metadata WHERE owner_id = " + OWNER;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private static final String BY_DATE = "idx_image_metadata_owner_upload_timestamp_id";
+    private static final String BY_SIZE = "idx_image_metadata_owner_size_id";
+
+    @BeforeEach
+    void requireUnpartitionedTable() {
+        Object relkind = entityManager.createNativeQuery(
+                "SELECT relkind::text FROM pg_class WHERE oid = 'dev.image_metadata'::regclass").getSingleResult();
+        assumeFalse("p".equals(relkind), "dev.image_metadata is partitioned; index names and plans differ after cutover");
+    }
+
+    // Índice esperado em cada caso; consultas ordenadas também não podem ter um nó Sort (a ordem vem do índice)
+    static Stream<Arguments> listingQueries() {
+        return Stream.of(
+                Arguments.of("default order", SELECT + " ORDER BY upload_timestamp DESC, id LIMIT 11", BY_DATE, true),
+                Arguments.of("oldest first", SELECT + " ORDER BY upload_timestamp ASC, id DESC LIMIT 11", BY_DATE, true),
+                Arguments.of("cursor page", SELECT + " AND upload_timestamp <= now() AND (upload_timestamp < now()"
+                        + " OR (upload_timestamp = now() AND id > " + OWNER + ")) ORDER BY upload_timestamp DESC, id LIMIT 11",
+                        BY_DATE, true),
+                Arguments.of("upload date range", SELECT + " AND upload_timestamp >= now() - interval '30 days' "
+                        + "AND upload_timestamp < now() ORDER BY upload_timestamp DESC, id LIMIT 11", BY_DATE, true),
+                Arguments.of("size sort", SELECT + " ORDER BY size DESC, id DESC LIMIT 11", BY_SIZE, true),
+                Arguments.of("size range", SELECT + " AND size >= 5242880 AND size <= 10485760 ORDER BY size, id LIMIT 11",
+                        BY_SIZE, true),
+                Arguments.of("name sort", SELECT + " ORDER BY file_name, id LIMIT 11",
+                        "idx_image_metadata_owner_file_name_id", true),
+                Arguments.of("content type", SELECT + " AND content_type = 'image/png' ORDER BY upload_timestamp DESC, id LIMIT 11",
+                        "idx_image_metadata_owner_content_type_upload_timestamp", true),
+                Arguments.of("public only", SELECT + " AND visibility = 'PUBLIC' ORDER BY upload_timestamp DESC, id LIMIT 11",
+                        "idx_image_metadata_owner_public_upload_timestamp", true),
+                Arguments.of("combined filters", SELECT + " AND content_type = 'image/png' AND size >= 5242880 "
+                        + "AND upload_timestamp >= now() - interval '30 days' ORDER BY upload_timestamp DESC, id LIMIT 11",
+                        "idx_image_metadata_owner_content_type_upload_timestamp", true),
+                // Qualquer índice iniciado por owner_id atende a contagem; o planner escolhe o menor
+                Arguments.of("count", "SELECT count(*) FROM dev.image_metadata WHERE owner_id = " + OWNER,
+                        "idx_image_metadata_owner_", false)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("listingQueries")
+    void listingQueryUsesTheExpectedIndex(String description, String sql, String expectedIndex, boolean ordered) {
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+        @SuppressWarnings("unchecked")
+        List<String> plan = entityManager.createNativeQuery("EXPLAIN " + sql).getResultList();
+        String planText = String.join("\n", plan);
+
+        assertThat(planText)
+                .as("plan for %s:%n%s", description, planText)
+                .contains(expectedIndex)
+                .doesNotContain("Seq Scan on image_metadata");
+        if (ordered) {
+            assertThat(planText)
+                    .as("plan for %s should read rows in index order:%n%s", description, planText)
+                    .doesNotContain("Sort");
+        }
+    }
+
+    @Test
+    void fileNameSearchUsesTheTrigramIndex() {
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+
+        @SuppressWarnings("unchecked")
+        List<String> plan = entityManager.createNativeQuery("EXPLAIN " + SELECT
+                + " AND 'praia' <% file_name ORDER BY word_similarity('praia', file_name) DESC, id LIMIT 21").getResultList();
+        String planText = String.join("\n", plan);
+
+        assertThat(planText)
+                .as("plan for file name search:%n%s", planText)
+                .contains("idx_image_metadata_owner_file_name_trgm");
+    }
+}